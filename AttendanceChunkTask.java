@@ -0,0 +1,95 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.io.StringReader;          // Reading text in memory
+import java.io.UncheckedIOException;  // Input/output errors inside tasks
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.MappedByteBuffer;     // Memory-mapped files
+import java.nio.channels.FileChannel; // File channels
+import java.nio.charset.StandardCharsets; // Character sets
+import java.util.concurrent.RecursiveTask; // Fork-join tasks
+
+// Parses the complete lines of one newline-aligned slice of the attendance file into its own segment
+class AttendanceChunkTask extends RecursiveTask<AttendanceRecord> {
+    private static final long serialVersionUID = 1L;  // Tasks are never serialized
+
+    transient FileChannel channel;  // Shared file handle
+    long start;           // First byte of the chunk
+    long end;             // One past the last byte of the chunk
+
+    // Describe a chunk
+    public AttendanceChunkTask(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected AttendanceRecord compute() {
+        AttendanceRecord segment = new AttendanceRecord();  // Thread-local partial result
+        MappedByteBuffer bytes;
+        try {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteSequence field = new ByteSequence();
+        int[] commas = new int[6];
+        int limit = bytes.limit();
+        int lineStart = 0;
+        int rejected = 0;
+
+        while (lineStart < limit) {
+            // Find the field separators and the end of the line
+            int count = 0;
+            boolean quoted = false;
+            int i = lineStart;
+            for (; i < limit; i++) {
+                byte b = bytes.get(i);
+                if (b == '\n') break;
+                if (b == '"') quoted = true;
+                if (b == ',' && count++ < commas.length) commas[count - 1] = i;
+            }
+            int lineEnd = i;
+            if (lineEnd == limit) break;  // No newline: the line may still be being written
+
+            if (quoted) {  // Rare; CsvReader owns the quoting rules
+                if (!addQuoted(segment, bytes, lineStart, lineEnd)) rejected++;
+            } else if (count == 5) {  // Six columns
+                int day = TimeCodec.parseDate(field.set(bytes, commas[2] + 1, commas[3]));
+                if (day == TimeCodec.INVALID_DATE) {
+                    rejected++;
+                } else {
+                    int logIn = TimeCodec.parseMinuteOfDay(field.set(bytes, commas[3] + 1, commas[4]));
+                    int logOut = TimeCodec.parseMinuteOfDay(field.set(bytes, commas[4] + 1, lineEnd));
+                    segment.addAttendance(field.set(bytes, lineStart, commas[0]), day, logIn, logOut);
+                }
+            } else {
+                rejected++;
+            }
+            lineStart = lineEnd + 1;  // Skip newline
+        }
+        Metrics.add(Metrics.ATTENDANCE_ROWS_PARSED, segment.size);  // Rows read, before duplicate days merge
+        Metrics.add(Metrics.ATTENDANCE_ROWS_REJECTED, rejected);
+        return segment;
+    }
+
+    // Parse a line holding quotes the way loadAttendance would; false if it is not one valid row.
+    // A quoted field cannot span lines here, since chunks are split at line ends.
+    static boolean addQuoted(AttendanceRecord segment, ByteBuffer bytes, int lineStart, int lineEnd) {
+        byte[] line = new byte[lineEnd - lineStart];
+        bytes.get(lineStart, line);
+        try (CsvReader csv = new CsvReader(new StringReader(new String(line, StandardCharsets.UTF_8)), line.length)) {
+            if (!csv.nextRow() || csv.fieldCount() != 6 || csv.nextRow()) return false;
+            int day = csv.epochDayField(3);
+            if (day == TimeCodec.INVALID_DATE) return false;
+            int logIn = csv.minuteOfDayField(4);
+            int logOut = csv.minuteOfDayField(5);
+            segment.addAttendance(csv.fieldSequence(0), day, logIn, logOut);  // The field view is reused, so take it last
+            return true;
+        } catch (IOException e) {
+            return false;  // Not reachable for text in memory
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.FileReader;            // File handling
+import java.io.IOException;           // Input/output exceptions
+import java.io.UncheckedIOException;  // Input/output errors inside tasks
+import java.lang.ref.SoftReference;   // Cached partitions the collector may reclaim
+import java.nio.BufferUnderflowException; // Truncated buffers
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.ByteOrder;            // Byte order of binary files
+import java.nio.MappedByteBuffer;     // Memory-mapped files
+import java.nio.channels.FileChannel; // File channels
+import java.nio.file.DirectoryStream; // Listing partition files
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.nio.file.Paths;           // File path factory
+import java.nio.file.StandardCopyOption; // File move options
+import java.nio.file.StandardOpenOption; // File open modes
+import java.util.*;                   // Collections and utilities
+
+// Attendance kept on disk as one binary file per month, in the snapshot's attendance layout,
+// listed in a manifest with each month's date and employee range. Queries read only the months
+// they overlap; read months are kept in an LRU bounded by rows, behind soft references so the
+// collector can take cold months first when memory runs short.
+class AttendancePartitions {
+    static final String MANIFEST_FILE = "manifest.csv";
+    static final int MAGIC = 0x5041504D;  // "MPAP"
+    static final int VERSION = 2;         // Bump when the layout or stored codes change
+
+    // One month's file and what it covers; employee numbers compare as strings
+    record Partition(int month, String file, int rows, int firstDay, int lastDay,
+                     String firstEmployee, String lastEmployee) {
+        // Whether the month may hold rows for an employee, or any employee when null, in a date range
+        boolean overlaps(CharSequence empNumber, int startDay, int endDay) {
+            if (lastDay < startDay || firstDay > endDay) return false;
+            if (empNumber == null) return true;
+            String id = empNumber.toString();
+            return id.compareTo(firstEmployee) >= 0 && id.compareTo(lastEmployee) <= 0;
+        }
+    }
+
+    String directory;                       // Partition files and manifest
+    String attendancePath;                  // Attendance CSV they are built from
+    NavigableMap<Integer, Partition> partitions;  // Month -> manifest entry
+    AttendanceWatermark watermark;          // End of the CSV rows in the partitions, null to read it all
+    AttendanceRecord changes;               // Rows appended by the update that made these, null if unknown
+    int rowsAdded;                          // Change in rows made by that update
+    long maxCachedRows;                     // Most rows kept in read months
+    long cachedRows;                        // Rows in read months, by the manifest
+    LinkedHashMap<Integer, SoftReference<AttendanceRecord>> loaded;  // Access-ordered, eldest first
+
+    // Partitions listed in a manifest
+    private AttendancePartitions(String directory, String attendancePath, NavigableMap<Integer, Partition> partitions) {
+        this.directory = directory;
+        this.attendancePath = attendancePath;
+        this.partitions = partitions;
+        maxCachedRows = Long.getLong("motorph.partitionRows", 4_000_000);
+        loaded = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    // Whether a directory holds a manifest
+    public static boolean exists(String directory) {
+        return Files.exists(Paths.get(directory, MANIFEST_FILE));
+    }
+
+    // Partition an attendance CSV from scratch, replacing whatever the directory held
+    public static AttendancePartitions build(String directory, String attendancePath) throws IOException {
+        Files.createDirectories(Paths.get(directory));
+        return new AttendancePartitions(directory, attendancePath, new TreeMap<>()).update();  // No watermark: reads it all
+    }
+
+    // Open a directory's partitions and bring them up to date with the CSV
+    public static AttendancePartitions open(String directory, String attendancePath) throws IOException {
+        NavigableMap<Integer, Partition> partitions = new TreeMap<>();
+        try (CsvReader csv = new CsvReader(new FileReader(manifestPath(directory)))) {
+            csv.nextRow();  // Skip header
+            while (csv.nextRow()) {
+                if (csv.fieldCount() < 7) continue;  // Blank or cut-off line
+                int month = parseMonth(csv.field(0));
+                partitions.put(month, new Partition(month, csv.field(1), (int) csv.longField(2),
+                    csv.epochDayField(3), csv.epochDayField(4), csv.field(5), csv.field(6)));
+            }
+        }
+        AttendancePartitions opened = new AttendancePartitions(directory, attendancePath, partitions);
+        opened.watermark = AttendanceWatermark.read(manifestPath(directory));
+        return opened.update();
+    }
+
+    // Rows for an employee, or every employee when null, covering a date range, both ends
+    // inclusive. One month is shared as read; a range over several months is merged into a new
+    // record, holding only the employee's rows when one is given.
+    public AttendanceRecord covering(CharSequence empNumber, int startDay, int endDay) {
+        List<AttendanceRecord> months = new ArrayList<>();
+        if (startDay <= endDay) {
+            for (Partition partition : partitions.subMap(TimeCodec.monthOf(startDay), true,
+                    TimeCodec.monthOf(endDay), true).values()) {
+                if (partition.overlaps(empNumber, startDay, endDay)) months.add(partition(partition));
+            }
+        }
+        if (months.size() == 1) return months.get(0);
+        AttendanceRecord merged = new AttendanceRecord();
+        if (empNumber == null) {
+            for (AttendanceRecord month : months) merged.addAll(month);
+        } else {
+            AttendanceRange range = new AttendanceRange();
+            for (AttendanceRecord month : months) {
+                month.getAttendanceInRange(empNumber.toString(), startDay, endDay, range);
+                for (int row = range.from; row < range.to; row++) merged.addRow(month, row);
+            }
+        }
+        return freeze(merged);
+    }
+
+    // Whether rows for an employee within a date range were added or dropped by the update that
+    // made these partitions
+    public boolean changedInRange(CharSequence empNumber, int startDay, int endDay) {
+        return changes == null || changes.changedInRange(empNumber, startDay, endDay);
+    }
+
+    // Bring the partitions up to date with the CSV: rows appended since the last update are merged
+    // into the months they fall in, and any earlier change rewrites every month. Returns the new
+    // partitions, or these when nothing was appended.
+    public AttendancePartitions update() throws IOException {
+        String manifestPath = manifestPath(directory);
+        AttendanceRecord tail = new AttendanceRecord();
+        AttendanceWatermark read = DataLoader.ingestAppendedAttendance(tail, attendancePath, watermark);
+        if (!tail.cleared && tail.size() == 0) {
+            watermark = read;  // Skip what was read next time
+            watermark.write(manifestPath);
+            return this;
+        }
+
+        // Rewrite each month the new rows fall in, merged with its earlier rows unless starting over
+        NavigableMap<Integer, Partition> next = tail.cleared ? new TreeMap<>() : new TreeMap<>(partitions);
+        Map<Integer, AttendanceRecord> written = new HashMap<>();
+        ByteBuffer out = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        int rowsBefore = 0, rowsAfter = 0;
+        for (Map.Entry<Integer, AttendanceRecord> slice : byMonth(tail).entrySet()) {
+            int month = slice.getKey();
+            AttendanceRecord attendance = slice.getValue();
+            Partition old = tail.cleared ? null : partitions.get(month);
+            if (old != null) {
+                attendance = new AttendanceRecord();
+                attendance.addAll(partition(old));
+                attendance.addAll(slice.getValue());
+                rowsBefore += old.rows();
+            }
+            attendance.sort();
+            rowsAfter += attendance.size();
+            next.put(month, write(out, month, attendance));
+            if (!tail.cleared) written.put(month, freeze(attendance));
+        }
+        if (tail.cleared) {
+            for (Partition partition : partitions.values()) rowsBefore += partition.rows();
+            deleteUnlisted(next);
+        }
+        writeManifest(next);
+        read.write(manifestPath);
+
+        // Keep read months the update did not touch, and the months it just wrote
+        AttendancePartitions updated = new AttendancePartitions(directory, attendancePath, next);
+        updated.watermark = read;
+        updated.changes = tail.cleared ? null : tail;  // Never hold a whole history just to compare
+        updated.rowsAdded = rowsAfter - rowsBefore;
+        if (!tail.cleared) {
+            synchronized (this) {
+                loaded.forEach((month, reference) -> {
+                    AttendanceRecord attendance = reference.get();
+                    if (attendance != null && !written.containsKey(month)) updated.cache(month, attendance);
+                });
+            }
+            written.forEach(updated::cache);
+        }
+        return updated;
+    }
+
+    // Number of months on disk
+    public int monthCount() {
+        return partitions.size();
+    }
+
+    // Number of rows on disk
+    public long rowCount() {
+        long rows = 0;
+        for (Partition partition : partitions.values()) rows += partition.rows();
+        return rows;
+    }
+
+    // A month's rows, read from disk unless still cached
+    private AttendanceRecord partition(Partition partition) {
+        synchronized (this) {
+            SoftReference<AttendanceRecord> reference = loaded.get(partition.month());
+            AttendanceRecord attendance = reference == null ? null : reference.get();
+            if (attendance != null) return attendance;
+            if (reference != null) {
+                loaded.remove(partition.month());  // Taken by the collector
+                cachedRows -= partition.rows();
+                Metrics.add(Metrics.PARTITION_EVICTIONS, 1);
+            }
+        }
+        AttendanceRecord attendance;
+        try {
+            attendance = read(partition);  // Outside the lock; a racing reader's copy is as good
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Metrics.add(Metrics.PARTITION_LOADS, 1);
+        cache(partition.month(), attendance);
+        return attendance;
+    }
+
+    // Keep a read month, dropping the least recently used ones over the row budget
+    private synchronized void cache(int month, AttendanceRecord attendance) {
+        if (loaded.put(month, new SoftReference<>(attendance)) == null) cachedRows += partitions.get(month).rows();
+        for (Iterator<Integer> months = loaded.keySet().iterator();
+                cachedRows > maxCachedRows && loaded.size() > 1 && months.hasNext(); ) {
+            int eldest = months.next();
+            if (eldest == month) continue;  // Keep the month just asked for
+            months.remove();
+            cachedRows -= partitions.get(eldest).rows();
+            Metrics.add(Metrics.PARTITION_EVICTIONS, 1);
+        }
+    }
+
+    // Read one partition file
+    private AttendanceRecord read(Partition partition) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(directory, partition.file()), StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a current attendance partition: " + partition.file());
+            }
+            return freeze(SnapshotStore.readAttendance(in, SnapshotStore.readStrings(in)));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated attendance partition: " + partition.file(), e);
+        }
+    }
+
+    // Write one month's sorted rows, replacing its old file in one step
+    private Partition write(ByteBuffer out, int month, AttendanceRecord attendance) throws IOException {
+        List<String> strings = Arrays.asList(attendance.employeeNumbers).subList(0, attendance.employeeCount);
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int e = 0; e < strings.size(); e++) indexes.put(strings.get(e), e);
+
+        String file = monthName(month) + ".part";
+        Path target = Paths.get(directory, file);
+        Path temp = Paths.get(directory, file + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.clear();
+            out.putInt(MAGIC).putInt(VERSION);
+            out = SnapshotStore.writeStrings(channel, out, strings);
+            out = SnapshotStore.writeAttendance(channel, out, attendance, indexes);
+            SnapshotStore.flush(channel, out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Manifest entry: date and employee range
+        int firstDay = Integer.MAX_VALUE, lastDay = Integer.MIN_VALUE;
+        for (int row = 0; row < attendance.size; row++) {
+            firstDay = Math.min(firstDay, attendance.dayColumn[row]);
+            lastDay = Math.max(lastDay, attendance.dayColumn[row]);
+        }
+        return new Partition(month, file, attendance.size, firstDay, lastDay,
+            Collections.min(strings), Collections.max(strings));
+    }
+
+    // Write the manifest, replacing the old one in one step
+    private void writeManifest(NavigableMap<Integer, Partition> partitions) throws IOException {
+        StringBuilder manifest = new StringBuilder("Month,File,Rows,First Day,Last Day,First Employee,Last Employee\n");
+        for (Partition partition : partitions.values()) {
+            manifest.append(monthName(partition.month())).append(',').append(partition.file())
+                .append(',').append(partition.rows())
+                .append(',').append(TimeCodec.formatDate(partition.firstDay()))
+                .append(',').append(TimeCodec.formatDate(partition.lastDay()))
+                .append(',').append(partition.firstEmployee()).append(',').append(partition.lastEmployee()).append('\n');
+        }
+        Path target = Paths.get(manifestPath(directory));
+        Path temp = Paths.get(manifestPath(directory) + ".tmp");
+        Files.writeString(temp, manifest);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Remove partition files of months no longer listed
+    private void deleteUnlisted(NavigableMap<Integer, Partition> partitions) throws IOException {
+        Set<String> listed = new HashSet<>();
+        for (Partition partition : partitions.values()) listed.add(partition.file());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(directory), "*.part")) {
+            for (Path file : files) {
+                if (!listed.contains(file.getFileName().toString())) Files.delete(file);
+            }
+        }
+    }
+
+    // Split rows by month, in row order
+    private static NavigableMap<Integer, AttendanceRecord> byMonth(AttendanceRecord attendance) {
+        NavigableMap<Integer, AttendanceRecord> months = new TreeMap<>();
+        int size = attendance.size();  // Sorts, so repeated days are already one row
+        int month = Integer.MIN_VALUE;
+        AttendanceRecord current = null;
+        for (int row = 0; row < size; row++) {
+            int rowMonth = TimeCodec.monthOf(attendance.dayAt(row));
+            if (rowMonth != month) {
+                month = rowMonth;
+                current = months.computeIfAbsent(month, m -> new AttendanceRecord());
+            }
+            current.addRow(attendance, row);
+        }
+        return months;
+    }
+
+    // Sort a record and share it read-only
+    private static AttendanceRecord freeze(AttendanceRecord attendance) {
+        attendance.sort();
+        attendance.frozen = true;
+        return attendance;
+    }
+
+    // Manifest file of a directory
+    private static String manifestPath(String directory) {
+        return DataLoader.dataFile(directory, MANIFEST_FILE);
+    }
+
+    // Month as yyyy-MM
+    static String monthName(int month) {
+        return String.format("%04d-%02d", month / 12, month % 12 + 1);
+    }
+
+    // Month from yyyy-MM
+    static int parseMonth(String name) {
+        return Integer.parseInt(name.substring(0, 4)) * 12 + Integer.parseInt(name.substring(5, 7)) - 1;
+    }
+}
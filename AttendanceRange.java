@@ -0,0 +1,12 @@
+package revisedms2;
+
+// Row window returned by a range query; reused between queries
+class AttendanceRange {
+    int from;  // First matching row
+    int to;    // One past the last matching row
+
+    // Number of rows in the window
+    public int size() {
+        return to - from;
+    }
+}
@@ -0,0 +1,624 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+
+// Manages attendance records as primitive columns sorted by (employee, day). A day punched more
+// than once keeps all its log-in/log-out pairs, packed one per int, behind a per-row offset index.
+class AttendanceRecord {
+    static final short MISSING_PUNCH = TimeCodec.NO_TIME;     // Stored for a blank punch
+    static final short MALFORMED_PUNCH = TimeCodec.BAD_TIME;  // Stored for an unreadable punch
+
+    int[] ordinalSlots;             // Open-addressing table of ordinal + 1, 0 when free
+    String[] employeeNumbers;       // Ordinal -> employee number
+    int employeeCount;              // Number of interned employees
+
+    int[] employeeColumn;   // Employee ordinal per row
+    int[] dayColumn;        // Epoch day per row
+    short[] logInColumn;    // Log-in minute of day per row
+    short[] logOutColumn;   // Log-out minute of day per row
+    int size;               // Number of rows in use
+
+    int[] intervalOffsets;  // Row -> first pair in intervals, one past the end for the last row
+    int[] intervals;        // Packed pairs of days punched more than once, by log-in; empty for other rows
+    int intervalCount;      // Number of pairs in use
+
+    int[] employeeOffsets;  // Ordinal -> first row once sorted
+    boolean sorted;         // True when rows are in (employee, day) order
+
+    int[] prefixFirstDay;   // Ordinal -> first day covered by the employee's prefix sums
+    int[][] prefixMinutes;  // Ordinal -> valid minutes worked before prefixFirstDay + index
+    int[] dirtyFromDay;     // Ordinal -> earliest day changed since the last sort
+    int[] changedFromDay;   // Ordinal -> earliest day added since this record was created or copied
+    int[] changedToDay;     // Ordinal -> latest day added since then
+    boolean cleared;        // True once every row was dropped since then
+    boolean frozen;         // True once shared read-only between threads
+    DayIndex dayIndex;      // Epoch day -> ordinals with usable punches that day
+
+    // Initialize data structure
+    public AttendanceRecord() {
+        ordinalSlots = new int[64];          // Create empty dictionary
+        employeeNumbers = new String[16];
+        employeeColumn = new int[1024];      // Create empty columns
+        dayColumn = new int[1024];
+        logInColumn = new short[1024];
+        logOutColumn = new short[1024];
+        intervalOffsets = new int[1025];     // No day punched twice yet
+        intervals = new int[16];
+        employeeOffsets = new int[1];
+        sorted = true;                       // Empty record is trivially sorted
+        prefixFirstDay = new int[16];        // Create empty prefix sums
+        prefixMinutes = new int[16][];
+        dirtyFromDay = new int[16];
+        changedFromDay = new int[16];        // Nothing changed yet
+        changedToDay = new int[16];
+        dayIndex = new DayIndex();
+    }
+
+    // Add attendance record
+    public void addAttendance(String empNumber, String date, String logIn, String logOut) {
+        int day = TimeCodec.parseDate(date);  // Parse date once at load time
+        if (day == TimeCodec.INVALID_DATE) {
+            System.err.println("Error parsing date: " + date);  // Handle error
+            return;
+        }
+        addAttendance(empNumber, day, TimeCodec.parseMinuteOfDay(logIn), TimeCodec.parseMinuteOfDay(logOut));
+    }
+
+    // Add attendance record from already parsed values
+    public void addAttendance(CharSequence empNumber, int day, int logIn, int logOut) {
+        checkNotFrozen();
+        if (size == dayColumn.length) grow();  // Make room
+        int ordinal = intern(empNumber);
+        employeeColumn[size] = ordinal;
+        dayColumn[size] = day;
+        markDirty(ordinal, day);  // Prefix sums change from this day on
+        logInColumn[size] = (short) (logIn < 0 ? punchCode(logIn) : logIn);
+        logOutColumn[size] = (short) (logOut < 0 ? punchCode(logOut) : logOut);
+        intervalOffsets[size + 1] = intervalOffsets[size];  // A single pair lives in the columns
+        size++;
+        sorted = false;  // New rows go to the end until the next sort
+    }
+
+    // Build a record from columns already in (employee, day) order, with the prefix sums and day
+    // sets that were computed for them, or null to compute those here
+    static AttendanceRecord fromSortedColumns(String[] employeeNumbers, int[] employeeColumn, int[] dayColumn,
+                                              short[] logInColumn, short[] logOutColumn,
+                                              int[] intervalOffsets, int[] intervals,
+                                              int[] prefixFirstDay, int[][] prefixMinutes, DayIndex dayIndex) {
+        AttendanceRecord record = new AttendanceRecord();
+        for (String empNumber : employeeNumbers) record.intern(empNumber);  // Same ordinals as before
+        record.employeeColumn = employeeColumn;
+        record.dayColumn = dayColumn;
+        record.logInColumn = logInColumn;
+        record.logOutColumn = logOutColumn;
+        record.size = dayColumn.length;
+        record.intervalOffsets = intervalOffsets;
+        record.intervals = intervals;
+        record.intervalCount = intervals.length;
+        record.employeeOffsets = new int[record.employeeCount + 1];
+        for (int row = 0; row < record.size; row++) record.employeeOffsets[employeeColumn[row] + 1]++;
+        for (int e = 0; e < record.employeeCount; e++) record.employeeOffsets[e + 1] += record.employeeOffsets[e];
+        record.sorted = true;
+        if (prefixMinutes != null) {
+            System.arraycopy(prefixFirstDay, 0, record.prefixFirstDay, 0, record.employeeCount);
+            System.arraycopy(prefixMinutes, 0, record.prefixMinutes, 0, record.employeeCount);
+            record.dayIndex = dayIndex;
+        } else {
+            Arrays.fill(record.dirtyFromDay, 0, record.employeeCount, Integer.MIN_VALUE);
+            record.rebuildPrefixes();
+        }
+        return record;
+    }
+
+    // Remove every row and employee
+    public void clear() {
+        checkNotFrozen();
+        Arrays.fill(ordinalSlots, 0);
+        Arrays.fill(employeeNumbers, null);
+        Arrays.fill(prefixMinutes, null);
+        employeeCount = 0;
+        size = 0;
+        intervalCount = 0;
+        employeeOffsets = new int[1];
+        dayIndex = new DayIndex();
+        sorted = true;
+        cleared = true;  // Every earlier row may have changed
+    }
+
+    // Append every row of another record, as if its rows had been added here in order
+    public void addAll(AttendanceRecord other) {
+        checkNotFrozen();
+        int[] remap = new int[other.employeeCount];  // Other ordinal -> this ordinal
+        for (int e = 0; e < other.employeeCount; e++) remap[e] = intern(other.employeeNumbers[e]);
+        while (size + other.size > dayColumn.length) grow();  // Make room
+        if (intervalCount + other.intervalCount > intervals.length) {
+            intervals = Arrays.copyOf(intervals, Math.max(intervals.length * 2, intervalCount + other.intervalCount));
+        }
+        int base = intervalCount;
+        for (int i = 0; i < other.size; i++) {
+            employeeColumn[size + i] = remap[other.employeeColumn[i]];
+            markDirty(remap[other.employeeColumn[i]], other.dayColumn[i]);
+            intervalOffsets[size + i + 1] = base + other.intervalOffsets[i + 1];
+        }
+        System.arraycopy(other.dayColumn, 0, dayColumn, size, other.size);
+        System.arraycopy(other.logInColumn, 0, logInColumn, size, other.size);
+        System.arraycopy(other.logOutColumn, 0, logOutColumn, size, other.size);
+        System.arraycopy(other.intervals, 0, intervals, base, other.intervalCount);
+        intervalCount += other.intervalCount;
+        size += other.size;
+        sorted = false;  // Merged rows go to the end until the next sort
+    }
+
+    // Append one row of another record with every pair punched that day
+    public void addRow(AttendanceRecord other, int row) {
+        checkNotFrozen();
+        if (size == dayColumn.length) grow();  // Make room
+        int first = other.intervalOffsets[row], last = other.intervalOffsets[row + 1];
+        if (intervalCount + last - first > intervals.length) {
+            intervals = Arrays.copyOf(intervals, Math.max(intervals.length * 2, intervalCount + last - first));
+        }
+        System.arraycopy(other.intervals, first, intervals, intervalCount, last - first);
+        intervalCount += last - first;
+        int ordinal = intern(other.employeeNumbers[other.employeeColumn[row]]);
+        employeeColumn[size] = ordinal;
+        dayColumn[size] = other.dayColumn[row];
+        markDirty(ordinal, other.dayColumn[row]);
+        logInColumn[size] = other.logInColumn[row];
+        logOutColumn[size] = other.logOutColumn[row];
+        intervalOffsets[size + 1] = intervalCount;
+        size++;
+        sorted = false;  // New rows go to the end until the next sort
+    }
+
+    // Mutable copy that can take new rows while this record is still being read.
+    // Prefix arrays are shared: they are only ever replaced, never written in place.
+    public AttendanceRecord copy() {
+        if (!sorted) sort();  // Copy the settled rows
+        AttendanceRecord copy = new AttendanceRecord();
+        copy.ordinalSlots = ordinalSlots.clone();
+        copy.employeeNumbers = employeeNumbers.clone();
+        copy.employeeCount = employeeCount;
+        copy.employeeColumn = Arrays.copyOf(employeeColumn, size);
+        copy.dayColumn = Arrays.copyOf(dayColumn, size);
+        copy.logInColumn = Arrays.copyOf(logInColumn, size);
+        copy.logOutColumn = Arrays.copyOf(logOutColumn, size);
+        copy.intervalOffsets = Arrays.copyOf(intervalOffsets, size + 1);
+        copy.intervals = Arrays.copyOf(intervals, Math.max(intervalCount, 16));
+        copy.intervalCount = intervalCount;
+        copy.size = size;
+        copy.employeeOffsets = employeeOffsets;  // Replaced, not written, by sort
+        copy.prefixFirstDay = prefixFirstDay.clone();
+        copy.prefixMinutes = prefixMinutes.clone();
+        copy.dirtyFromDay = dirtyFromDay.clone();
+        copy.dayIndex = dayIndex.copy();  // Day sets are copied when first written
+        copy.changedFromDay = new int[employeeNumbers.length];  // Changes are counted from the copy
+        copy.changedToDay = new int[employeeNumbers.length];
+        Arrays.fill(copy.changedFromDay, 0, employeeCount, Integer.MAX_VALUE);
+        Arrays.fill(copy.changedToDay, 0, employeeCount, Integer.MIN_VALUE);
+        return copy;
+    }
+
+    // Get rows for an employee within a date range, both ends inclusive
+    public AttendanceRange getAttendanceInRange(String empNumber, int startDay, int endDay, AttendanceRange range) {
+        if (!sorted) sort();  // Sort pending rows
+        int ordinal = ordinalOf(empNumber);
+        if (ordinal < 0 || startDay > endDay) {
+            range.from = 0;  // Unknown employee or empty range
+            range.to = 0;
+            return range;
+        }
+        int first = employeeOffsets[ordinal];
+        int last = employeeOffsets[ordinal + 1];
+        range.from = lowerBound(first, last, startDay);      // First row on or after start
+        range.to = lowerBound(range.from, last, endDay + 1);  // First row after end
+        return range;
+    }
+
+    // Total valid minutes for an employee within a date range, both ends inclusive, in constant time
+    public long minutesInRange(CharSequence empNumber, int startDay, int endDay) {
+        if (!sorted) sort();  // Sort pending rows and refresh prefix sums
+        int ordinal = ordinalOf(empNumber);
+        if (ordinal < 0 || prefixMinutes[ordinal] == null) return 0;  // Unknown employee or no rows
+        int[] prefix = prefixMinutes[ordinal];
+        int firstDay = prefixFirstDay[ordinal];
+        long from = Math.max((long) startDay - firstDay, 0);                   // Clamp to covered days
+        long to = Math.min((long) endDay - firstDay + 1, prefix.length - 1);
+        return from < to ? prefix[(int) to] - prefix[(int) from] : 0;
+    }
+
+    // Whether rows for an employee within a date range were added or dropped since this record
+    // was created or copied
+    public boolean changedInRange(CharSequence empNumber, int startDay, int endDay) {
+        if (cleared) return true;
+        int ordinal = ordinalOf(empNumber);
+        return ordinal >= 0 && changedFromDay[ordinal] <= endDay && changedToDay[ordinal] >= startDay;
+    }
+
+    // Ordinals with usable punches on every day of a date range, both ends inclusive
+    public BitSet presentOn(int startDay, int endDay) {
+        if (!sorted) sort();  // Sort pending rows and refresh the day index
+        BitSet present = (BitSet) dayIndex.get(startDay).clone();
+        for (int day = startDay + 1; day <= endDay && !present.isEmpty(); day++) present.and(dayIndex.get(day));
+        return present;
+    }
+
+    // Number of employees with usable punches on a day
+    public int headcount(int day) {
+        if (!sorted) sort();
+        return dayIndex.get(day).cardinality();
+    }
+
+    // Employees of a roster without usable punches on a day, in roster order
+    public List<String> absentOn(Collection<String> roster, int day) {
+        if (!sorted) sort();
+        BitSet present = dayIndex.get(day);
+        List<String> absent = new ArrayList<>();
+        for (String empNumber : roster) {
+            int ordinal = ordinalOf(empNumber);
+            if (ordinal < 0 || !present.get(ordinal)) absent.add(empNumber);  // Never loaded counts as absent
+        }
+        return absent;
+    }
+
+    // Ordinals of the roster employees that have been loaded
+    public BitSet ordinalsOf(Collection<String> roster) {
+        BitSet ordinals = new BitSet(employeeCount);
+        for (String empNumber : roster) {
+            int ordinal = ordinalOf(empNumber);
+            if (ordinal >= 0) ordinals.set(ordinal);
+        }
+        return ordinals;
+    }
+
+    // Employee numbers of a set of ordinals, in ordinal order
+    public List<String> employeeNumbersOf(BitSet ordinals) {
+        List<String> numbers = new ArrayList<>(ordinals.cardinality());
+        for (int e = ordinals.nextSetBit(0); e >= 0; e = ordinals.nextSetBit(e + 1)) numbers.add(employeeNumbers[e]);
+        return numbers;
+    }
+
+    // Accessors for a row returned by a range query
+    public int dayAt(int row) { return dayColumn[row]; }
+    public short logInAt(int row) { return logInColumn[row]; }
+    public short logOutAt(int row) { return logOutColumn[row]; }
+    public String employeeNumberAt(int row) { return employeeNumbers[employeeColumn[row]]; }
+
+    // Minutes between log-in and log-out for a row, past midnight if the log-out is earlier, with
+    // overlapping pairs of a day punched more than once counted once; 0 unless statusAt(row) is VALID
+    public int minutesWorkedAt(int row) {
+        int first = intervalOffsets[row], last = intervalOffsets[row + 1];
+        if (first != last) return mergedMinutes(intervals, first, last);  // Punched more than once
+        return pairMinutes(logInColumn[row], logOutColumn[row]);
+    }
+
+    // Minutes worked on one day from all of its pairs, given in any order and with repeats, settled
+    // the way sort() settles a repeated day; reorders pairs[from, to)
+    static int dayMinutes(int[] pairs, int from, int to) {
+        Arrays.sort(pairs, from, to);
+        int end = distinctPairs(pairs, from, to);
+        if (end - from == 1) return pairMinutes(logInOf(pairs[from]), logOutOf(pairs[from]));
+        return mergedMinutes(pairs, from, end);
+    }
+
+    // Minutes between one log-in and log-out, past midnight if the log-out is earlier; 0 if unusable
+    static int pairMinutes(int logIn, int logOut) {
+        if ((logIn | logOut) < 0) return 0;                  // Missing or unreadable punch
+        int minutes = logOut - logIn;                        // Difference in minutes
+        if (minutes >= 0) return minutes;
+        minutes += TimeCodec.MINUTES_PER_DAY;                // Crossed midnight
+        return minutes <= PunchStatus.MAX_SHIFT_MINUTES ? minutes : 0;
+    }
+
+    // Drop repeats from pairs[from, to), sorted by log-in, and open pairs that a pair with the same
+    // log-in closes, which sort just after it. Returns the end of the pairs kept.
+    static int distinctPairs(int[] pairs, int from, int to) {
+        int distinct = from;
+        for (int i = from; i < to; i++) {
+            if (i > from && (pairs[i] == pairs[distinct - 1] || logInOf(pairs[i]) == logInOf(pairs[distinct - 1])
+                    && logOutOf(pairs[i]) == MISSING_PUNCH)) continue;
+            pairs[distinct++] = pairs[i];
+        }
+        return distinct;
+    }
+
+    // Whether a row's punches can be used, and why not if they cannot; a day punched more than
+    // once is only usable when every pair is
+    public PunchStatus statusAt(int row) {
+        int first = intervalOffsets[row], last = intervalOffsets[row + 1];
+        if (first == last) return PunchStatus.of(logInColumn[row], logOutColumn[row]);
+        for (int i = first; i < last; i++) {
+            PunchStatus status = PunchStatus.of(logInOf(intervals[i]), logOutOf(intervals[i]));
+            if (status != PunchStatus.VALID) return status;
+        }
+        return PunchStatus.VALID;
+    }
+
+    // Number of log-in/log-out pairs stored for a row
+    public int pairCountAt(int row) {
+        return Math.max(1, intervalOffsets[row + 1] - intervalOffsets[row]);
+    }
+
+    // Merge the pairs of a day punched more than once into disjoint [start, end) minutes, ends past
+    // midnight going over MINUTES_PER_DAY, written to starts and ends. Returns how many were
+    // written, or -1 if any pair is unusable.
+    public int mergedIntervalsAt(int row, int[] starts, int[] ends) {
+        int merged = -1;
+        for (int i = intervalOffsets[row]; i < intervalOffsets[row + 1]; i++) {
+            int start = logInOf(intervals[i]), end = endOf(intervals[i]);
+            if (end < 0) return -1;
+            if (merged >= 0 && start <= ends[merged]) {
+                ends[merged] = Math.max(ends[merged], end);  // Overlaps or touches the previous pair
+            } else {
+                starts[++merged] = start;
+                ends[merged] = end;
+            }
+        }
+        return merged + 1;
+    }
+
+    // Minutes covered by pairs [first, last), which are sorted by log-in, in one pass
+    private static int mergedMinutes(int[] pairs, int first, int last) {
+        int total = 0, start = 0, end = 0;
+        for (int i = first; i < last; i++) {
+            int pairStart = logInOf(pairs[i]), pairEnd = endOf(pairs[i]);
+            if (pairEnd < 0) return 0;                     // Unusable pair voids the day
+            if (pairStart > end) {
+                total += end - start;                      // Gap: close the previous interval
+                start = pairStart;
+            }
+            end = Math.max(end, pairEnd);
+        }
+        return total + end - start;
+    }
+
+    // Pack a log-in and log-out into one int
+    static int pack(int logIn, int logOut) {
+        return logIn << 16 | (logOut & 0xFFFF);
+    }
+
+    // Log-in of a packed pair
+    static short logInOf(int pair) {
+        return (short) (pair >> 16);
+    }
+
+    // Log-out of a packed pair
+    static short logOutOf(int pair) {
+        return (short) pair;
+    }
+
+    // Minute a packed pair ends, past MINUTES_PER_DAY if it crossed midnight, or -1 if unusable
+    private static int endOf(int pair) {
+        short logIn = logInOf(pair), logOut = logOutOf(pair);
+        if (PunchStatus.of(logIn, logOut) != PunchStatus.VALID) return -1;
+        return logOut < logIn ? logOut + TimeCodec.MINUTES_PER_DAY : logOut;
+    }
+
+    // Refuse changes to a record that is shared read-only
+    private void checkNotFrozen() {
+        if (frozen) throw new IllegalStateException("Attendance record is frozen");
+    }
+
+    // Stored code for a time that did not parse
+    private static short punchCode(int time) {
+        return time == TimeCodec.NO_TIME ? MISSING_PUNCH : MALFORMED_PUNCH;
+    }
+
+    // Number of stored rows
+    public int size() {
+        if (!sorted) sort();  // Duplicates are only dropped when sorting
+        return size;
+    }
+
+    // Sort rows by (employee, day), gathering every pair punched on a repeated day into one row
+    public void sort() {
+        if (sorted) return;
+        int n = size;
+
+        // Counting sort by employee keeps load order within each employee
+        int[] offsets = new int[employeeCount + 1];
+        for (int i = 0; i < n; i++) offsets[employeeColumn[i] + 1]++;
+        for (int e = 0; e < employeeCount; e++) offsets[e + 1] += offsets[e];
+        int[] order = new int[n];
+        int[] cursor = Arrays.copyOf(offsets, employeeCount);
+        for (int i = 0; i < n; i++) order[cursor[employeeColumn[i]]++] = i;
+
+        int[] days = new int[n];
+        short[] logIns = new short[n];
+        short[] logOuts = new short[n];
+        int[] employees = new int[n];
+        int[] newOffsets = new int[employeeCount + 1];
+        int[] pairOffsets = new int[n + 1];
+        int[] pairs = new int[Math.max(16, intervalCount)];
+        int pairCount = 0;
+        long[] keys = new long[16];
+        int out = 0;
+
+        for (int e = 0; e < employeeCount; e++) {
+            newOffsets[e] = out;
+            int start = offsets[e];
+            int count = offsets[e + 1] - start;
+            if (keys.length < count) keys = new long[count];
+
+            // Sort by day, breaking ties by load order
+            for (int k = 0; k < count; k++) {
+                keys[k] = ((long) dayColumn[order[start + k]] << 32) | k;
+            }
+            Arrays.sort(keys, 0, count);
+
+            for (int k = 0; k < count; ) {
+                int day = (int) (keys[k] >> 32);
+                employees[out] = e;
+                days[out] = day;
+                pairOffsets[out] = pairCount;
+                int single = order[start + (int) keys[k]];
+                if ((k + 1 == count || (int) (keys[k + 1] >> 32) != day)
+                        && intervalOffsets[single] == intervalOffsets[single + 1]) {
+                    logIns[out] = logInColumn[single];  // Common case: one pair, kept in the columns
+                    logOuts[out] = logOutColumn[single];
+                    out++;
+                    k++;
+                    continue;
+                }
+
+                // Gather the pairs of every row loaded for this day
+                int dayPairs = pairCount;
+                for (; k < count && (int) (keys[k] >> 32) == day; k++) {
+                    int row = order[start + (int) keys[k]];
+                    int first = intervalOffsets[row], last = intervalOffsets[row + 1];
+                    int needed = pairCount + Math.max(1, last - first);
+                    if (needed > pairs.length) pairs = Arrays.copyOf(pairs, Math.max(needed, pairs.length * 2));
+                    if (first == last) pairs[pairCount++] = pack(logInColumn[row], logOutColumn[row]);
+                    for (int i = first; i < last; i++) pairs[pairCount++] = intervals[i];
+                }
+
+                // Sort by log-in and drop repeats; one remaining pair goes back in the columns
+                Arrays.sort(pairs, dayPairs, pairCount);
+                int distinct = distinctPairs(pairs, dayPairs, pairCount);
+                pairCount = distinct - dayPairs > 1 ? distinct : dayPairs;
+                logIns[out] = logInOf(pairs[dayPairs]);  // First log-in of the day
+                logOuts[out] = logOutOf(pairs[dayPairs]);
+                if (pairCount > dayPairs) {
+                    int end = 0;  // Last log-out of the day
+                    for (int i = dayPairs; i < pairCount; i++) end = Math.max(end, endOf(pairs[i]));
+                    logOuts[out] = (short) (end % TimeCodec.MINUTES_PER_DAY);
+                }
+                out++;
+            }
+        }
+        newOffsets[employeeCount] = out;
+        pairOffsets[out] = pairCount;
+
+        employeeColumn = employees;  // Swap in sorted columns
+        dayColumn = days;
+        logInColumn = logIns;
+        logOutColumn = logOuts;
+        intervalOffsets = pairOffsets;
+        intervals = pairs;
+        intervalCount = pairCount;
+        employeeOffsets = newOffsets;
+        size = out;
+        sorted = true;
+        rebuildPrefixes();  // Only employees with new rows are recomputed
+    }
+
+    // Note that an employee's prefix sums are stale from the given day
+    private void markDirty(int ordinal, int day) {
+        if (day < dirtyFromDay[ordinal]) dirtyFromDay[ordinal] = day;
+        if (day < changedFromDay[ordinal]) changedFromDay[ordinal] = day;
+        if (day > changedToDay[ordinal]) changedToDay[ordinal] = day;
+    }
+
+    // Recompute prefix sums of changed employees, reusing the unchanged leading part
+    private void rebuildPrefixes() {
+        for (int e = 0; e < employeeCount; e++) {
+            int dirtyFrom = dirtyFromDay[e];
+            if (dirtyFrom == Integer.MAX_VALUE) continue;  // Unchanged
+            dirtyFromDay[e] = Integer.MAX_VALUE;
+            int first = employeeOffsets[e], last = employeeOffsets[e + 1];
+            if (first == last) {
+                prefixMinutes[e] = null;  // No rows
+                continue;
+            }
+
+            // One slot per day from the first to the last day worked, plus a leading zero
+            int firstDay = dayColumn[first];
+            int span = dayColumn[last - 1] - firstDay + 1;
+            int[] old = prefixMinutes[e];
+            int[] prefix = new int[span + 1];
+            int startDay = firstDay;
+            if (old != null && prefixFirstDay[e] == firstDay && dirtyFrom > firstDay) {
+                int keep = (int) Math.min((long) dirtyFrom - firstDay, old.length - 1);
+                System.arraycopy(old, 0, prefix, 0, keep + 1);  // Days before the change are unchanged
+                startDay = firstDay + keep;
+            }
+
+            int row = lowerBound(first, last, startDay);
+            for (int k = startDay - firstDay; k < span; k++) {
+                int minutes = 0;
+                if (row < last && dayColumn[row] == firstDay + k) {
+                    dayIndex.set(firstDay + k, e, statusAt(row) == PunchStatus.VALID);  // A repeated day may have changed
+                    minutes = minutesWorkedAt(row++);
+                }
+                prefix[k + 1] = prefix[k] + minutes;
+            }
+            prefixFirstDay[e] = firstDay;
+            prefixMinutes[e] = prefix;
+        }
+    }
+
+    // First row in [from, to) whose day is not before the given day
+    private int lowerBound(int from, int to, int day) {
+        int low = from, high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dayColumn[mid] < day) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Ordinal of an employee number, or -1 if never loaded
+    public int ordinalOf(CharSequence empNumber) {
+        int mask = ordinalSlots.length - 1;
+        for (int slot = hash(empNumber) & mask; ; slot = (slot + 1) & mask) {
+            int entry = ordinalSlots[slot];
+            if (entry == 0) return -1;  // Free slot ends the probe
+            if (employeeNumbers[entry - 1].contentEquals(empNumber)) return entry - 1;
+        }
+    }
+
+    // Map an employee number to its ordinal, assigning a new one if needed
+    private int intern(CharSequence empNumber) {
+        int mask = ordinalSlots.length - 1;
+        int slot = hash(empNumber) & mask;
+        for (int entry; (entry = ordinalSlots[slot]) != 0; slot = (slot + 1) & mask) {
+            if (employeeNumbers[entry - 1].contentEquals(empNumber)) return entry - 1;  // Known
+        }
+        if (employeeCount == employeeNumbers.length) {
+            employeeNumbers = Arrays.copyOf(employeeNumbers, employeeCount * 2);
+            prefixFirstDay = Arrays.copyOf(prefixFirstDay, employeeCount * 2);
+            prefixMinutes = Arrays.copyOf(prefixMinutes, employeeCount * 2);
+            dirtyFromDay = Arrays.copyOf(dirtyFromDay, employeeCount * 2);
+            changedFromDay = Arrays.copyOf(changedFromDay, employeeCount * 2);
+            changedToDay = Arrays.copyOf(changedToDay, employeeCount * 2);
+        }
+        employeeNumbers[employeeCount] = empNumber.toString();  // Only new ids allocate
+        dirtyFromDay[employeeCount] = Integer.MAX_VALUE;        // No rows yet
+        changedFromDay[employeeCount] = Integer.MAX_VALUE;
+        changedToDay[employeeCount] = Integer.MIN_VALUE;
+        ordinalSlots[slot] = employeeCount + 1;
+        employeeCount++;
+        if (employeeCount * 2 > ordinalSlots.length) rehash();  // Keep load under half
+        return employeeCount - 1;
+    }
+
+    // Double the dictionary table
+    private void rehash() {
+        int[] slots = new int[ordinalSlots.length * 2];
+        int mask = slots.length - 1;
+        for (int ordinal = 0; ordinal < employeeCount; ordinal++) {
+            int slot = hash(employeeNumbers[ordinal]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = ordinal + 1;
+        }
+        ordinalSlots = slots;
+    }
+
+    // Same value as String.hashCode, spread for the table
+    private static int hash(CharSequence text) {
+        int h = 0;
+        for (int i = 0; i < text.length(); i++) h = 31 * h + text.charAt(i);
+        return h ^ (h >>> 16);
+    }
+
+    // Double the capacity of every column
+    private void grow() {
+        int capacity = Math.max(1024, dayColumn.length * 2);
+        employeeColumn = Arrays.copyOf(employeeColumn, capacity);
+        dayColumn = Arrays.copyOf(dayColumn, capacity);
+        logInColumn = Arrays.copyOf(logInColumn, capacity);
+        logOutColumn = Arrays.copyOf(logOutColumn, capacity);
+        intervalOffsets = Arrays.copyOf(intervalOffsets, capacity + 1);
+    }
+}
@@ -0,0 +1,99 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.FileReader;            // File handling
+import java.io.IOException;           // Input/output exceptions
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.channels.FileChannel; // File channels
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.nio.file.Paths;           // File path factory
+import java.nio.file.StandardCopyOption; // File move options
+import java.util.*;                   // Collections and utilities
+import java.util.zip.CRC32;           // Checksums
+
+// Position in the attendance file up to which rows have been ingested, kept in a sidecar file.
+// The prefix is checked without reading it all: the last WINDOW_BYTES in full, and SAMPLES
+// windows of SAMPLE_BYTES spread evenly from the start of the file, header included. A truncated
+// or rewritten file, a changed header, or an edit in any sampled window or near the end forces a
+// full reload; an edit that keeps the length and falls between samples is not detected.
+class AttendanceWatermark {
+    static final int WINDOW_BYTES = 64 * 1024;  // Bytes before the offset covered by the checksum
+    static final int SAMPLES = 32;              // Windows sampled across the rest of the prefix
+    static final int SAMPLE_BYTES = 4 * 1024;   // Size of each sampled window
+
+    long offset;          // End of the last ingested line
+    long checksum;        // CRC32 of the bytes just before offset
+    long prefixChecksum;  // CRC32 of the sampled windows before those
+
+    // Watermark for the given offset of a file
+    public static AttendanceWatermark compute(FileChannel channel, long offset) throws IOException {
+        AttendanceWatermark watermark = new AttendanceWatermark();
+        watermark.offset = offset;
+        watermark.checksum = windowChecksum(channel, offset);
+        watermark.prefixChecksum = sampledChecksum(channel, offset);
+        return watermark;
+    }
+
+    // Whether the file still holds the same bytes before the offset, as far as the checksums see
+    public boolean matches(FileChannel channel) throws IOException {
+        return channel.size() >= offset && windowChecksum(channel, offset) == checksum
+            && sampledChecksum(channel, offset) == prefixChecksum;
+    }
+
+    // Read the sidecar for a CSV file, or null if there is none
+    public static AttendanceWatermark read(String csvPath) {
+        Properties properties = new Properties();
+        try (FileReader reader = new FileReader(sidecarPath(csvPath))) {
+            properties.load(reader);
+            AttendanceWatermark watermark = new AttendanceWatermark();
+            watermark.offset = Long.parseLong(properties.getProperty("offset"));
+            watermark.checksum = Long.parseLong(properties.getProperty("checksum"));
+            watermark.prefixChecksum = Long.parseLong(properties.getProperty("prefixChecksum"));
+            return watermark;
+        } catch (IOException | RuntimeException e) {
+            return null;  // Missing or unreadable sidecar means a full reload
+        }
+    }
+
+    // Write the sidecar for a CSV file, replacing the old one in one step
+    public void write(String csvPath) throws IOException {
+        Path target = Paths.get(sidecarPath(csvPath));
+        Path temp = Paths.get(sidecarPath(csvPath) + ".tmp");
+        Files.writeString(temp, "offset=" + offset + "\nchecksum=" + checksum + "\nprefixChecksum=" + prefixChecksum + "\n");
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Sidecar file name for a CSV file
+    public static String sidecarPath(String csvPath) {
+        return csvPath + ".watermark";
+    }
+
+    // CRC32 of up to WINDOW_BYTES ending at offset
+    private static long windowChecksum(FileChannel channel, long offset) throws IOException {
+        long start = Math.max(0, offset - WINDOW_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(readWindow(channel, start, (int) (offset - start)));
+        return crc.getValue();
+    }
+
+    // CRC32 of SAMPLES windows spread over the bytes before the last WINDOW_BYTES, the first at 0
+    private static long sampledChecksum(FileChannel channel, long offset) throws IOException {
+        long end = Math.max(0, offset - WINDOW_BYTES);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < SAMPLES && end > 0; i++) {
+            long start = end * i / SAMPLES;
+            crc.update(readWindow(channel, start, (int) Math.min(SAMPLE_BYTES, end - start)));
+        }
+        return crc.getValue();
+    }
+
+    // Up to length bytes of a file from start, fewer if it has shrunk
+    private static ByteBuffer readWindow(FileChannel channel, long start, int length) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(length);
+        while (window.hasRemaining()) {
+            if (channel.read(window, start + window.position()) < 0) break;  // File shrank
+        }
+        return window.flip();
+    }
+}
@@ -0,0 +1,18 @@
+package revisedms2;
+
+// Deduction computed from a bracket table
+class BracketDeduction extends Deduction {
+    BracketTable table;  // Contribution schedule
+
+    // Constructor takes its name from the table
+    public BracketDeduction(BracketTable table) {
+        super(table.name);
+        this.table = table;
+    }
+
+    // Look up the contribution
+    @Override
+    public long calculate(long basicSalary) {
+        return table.calculate(basicSalary);
+    }
+}
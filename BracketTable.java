@@ -0,0 +1,70 @@
+package revisedms2;
+
+// Bracket schedule: the first bracket whose limit holds gives fixed + rate * (amount - over),
+// all in centavos, with the rate's fraction of a centavo settled by the table's rounding rule
+class BracketTable {
+    String name;                 // Name of the schedule
+    long[] limits;               // Exclusive upper limit of every bracket but the open-ended last one
+    long[] fixed;                // Fixed part per bracket
+    long[] rate;                 // Rate applied to the excess per bracket, in millionths
+    long[] over;                 // Amount the excess is measured from per bracket
+    Centavos.Rounding rounding;  // Rule for the rate's fraction of a centavo
+    boolean flat;                // Every rate is zero, so only the fixed part applies
+    long[] base;                 // Half-up tables: fixed and over folded with the half-centavo bias, in millionths
+
+    // Build a table; inclusive limits are stored as the next centavo up so every test is "<"
+    public BracketTable(String name, long[] limits, boolean[] inclusive,
+                        long[] fixed, long[] rate, long[] over, Centavos.Rounding rounding) {
+        this.name = name;
+        this.limits = new long[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+            this.limits[i] = inclusive[i] ? limits[i] + 1 : limits[i];
+        }
+        this.fixed = fixed;
+        this.rate = rate;
+        this.over = over;
+        this.rounding = rounding;
+        flat = true;
+        for (long r : rate) flat &= r == 0;
+        // fixed + round(rate * (amount - over)) == floor((rate * amount + base) / scale) for half-up
+        base = new long[fixed.length];
+        for (int b = 0; b < base.length; b++) {
+            base[b] = fixed[b] * Centavos.RATE_SCALE - over[b] * rate[b] + Centavos.RATE_SCALE / 2;
+        }
+    }
+
+    // Index of the bracket an amount falls in
+    public int bracketOf(long amount) {
+        int low = 0, high = limits.length;  // Last bracket is open-ended
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (amount < limits[mid]) high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+
+    // Amount due for one value
+    public long calculate(long amount) {
+        int b = bracketOf(amount);
+        if (rounding == Centavos.Rounding.HALF_UP) return Centavos.floorMillionths(amount * rate[b] + base[b]);
+        return fixed[b] + Centavos.applyRate(amount - over[b], rate[b], rounding);
+    }
+
+    // Add the amount due for each value to out
+    public void addTo(long[] amounts, long[] out) {
+        if (flat) {
+            for (int i = 0; i < amounts.length; i++) out[i] += fixed[bracketOf(amounts[i])];
+            return;
+        }
+        if (rounding != Centavos.Rounding.HALF_UP) {
+            for (int i = 0; i < amounts.length; i++) out[i] += calculate(amounts[i]);
+            return;
+        }
+        // Statutory tables round half up, so the common loop is one multiply-add and a reciprocal multiply
+        for (int i = 0; i < amounts.length; i++) {
+            int b = bracketOf(amounts[i]);
+            out[i] += Centavos.floorMillionths(amounts[i] * rate[b] + base[b]);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.charset.StandardCharsets; // Character sets
+
+// Character view over ASCII bytes in a buffer
+class ByteSequence implements CharSequence {
+    ByteBuffer bytes;  // Backing buffer
+    int start;         // First byte
+    int end;           // One past the last byte
+
+    // Point the view at a byte range
+    public ByteSequence set(ByteBuffer bytes, int start, int end) {
+        while (start < end && bytes.get(start) <= ' ') start++;   // Trim leading blanks
+        while (end > start && bytes.get(end - 1) <= ' ') end--;   // Trim trailing blanks
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(start + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        return toString().substring(from, to);
+    }
+
+    @Override
+    public String toString() {
+        byte[] copy = new byte[end - start];
+        bytes.get(start, copy);
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,74 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+
+// Money as a whole number of centavos in a long, with the rounding rules payroll applies when a
+// rate or a division leaves a fraction of a centavo. Nothing here allocates.
+final class Centavos {
+    static final long PER_PESO = 100;          // Centavos in a peso
+    static final long RATE_SCALE = 1_000_000;  // Rates are stored in millionths
+    private static final long RATE_RECIPROCAL = 0x431BDE82D7B634DBL;  // ceil(2^82 / RATE_SCALE)
+
+    // How a fraction of a centavo is settled
+    enum Rounding {
+        HALF_UP,    // Nearest centavo, halves up
+        HALF_EVEN,  // Nearest centavo, halves to the even centavo
+        DOWN;       // Fraction dropped, toward zero
+
+        // Parse a rates file value: half-up, half-even or down; blank means half-up
+        static Rounding parse(String text) {
+            return text.isBlank() ? HALF_UP : valueOf(text.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private Centavos() {
+    }
+
+    // Nearest centavo to an amount in pesos, for amounts read from files
+    public static long of(double pesos) {
+        return Math.round(pesos * PER_PESO);
+    }
+
+    // Nearest millionth to a rate, for rates read from files
+    public static long rate(double rate) {
+        return Math.round(rate * RATE_SCALE);
+    }
+
+    // Pesos as a double, for display only
+    public static double toPesos(long centavos) {
+        return centavos / (double) PER_PESO;
+    }
+
+    // An amount times a rate in millionths, settled to a centavo
+    public static long applyRate(long centavos, long rate, Rounding rounding) {
+        return divide(centavos * rate, RATE_SCALE, rounding);
+    }
+
+    // floor(millionths / RATE_SCALE) by reciprocal multiply; a hardware long divide costs several times more
+    public static long floorMillionths(long millionths) {
+        long quotient = (Math.multiplyHigh(millionths, RATE_RECIPROCAL) >> 18) - (millionths >> 63);  // Truncated
+        return quotient + ((millionths - quotient * RATE_SCALE) >> 63);  // One down when the remainder is negative
+    }
+
+    // numerator / denominator for a positive denominator, settled to a whole number
+    public static long divide(long numerator, long denominator, Rounding rounding) {
+        switch (rounding) {
+            case HALF_UP:
+                return Math.floorDiv(numerator + denominator / 2, denominator);  // floor(x + 1/2)
+            case DOWN:
+                return numerator / denominator;  // Java division already truncates toward zero
+            default:
+                long quotient = Math.floorDiv(numerator, denominator);
+                long twice = 2 * (numerator - quotient * denominator);  // Twice the remainder, in [0, 2 * denominator)
+                return twice > denominator || twice == denominator && (quotient & 1) != 0 ? quotient + 1 : quotient;
+        }
+    }
+
+    // Amount as pesos with two decimals, like %.2f
+    public static String format(long centavos) {
+        long whole = Math.abs(centavos);
+        String text = (whole / PER_PESO) + "." + (whole % PER_PESO < 10 ? "0" : "") + (whole % PER_PESO);
+        return centavos < 0 ? "-" + text : text;
+    }
+}
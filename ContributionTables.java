@@ -0,0 +1,111 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.FileReader;            // File handling
+import java.io.IOException;           // Input/output exceptions
+import java.io.Reader;                // Character streams
+import java.io.UncheckedIOException;  // Input/output errors inside tasks
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Paths;           // File path factory
+import java.util.*;                   // Collections and utilities
+
+// Contribution and tax tables read from a rates file, so rate changes need no recompile
+class ContributionTables {
+    static final String RATES_PATH = System.getProperty("motorph.rates");  // Rates file override, null to search
+
+    private static ContributionTables standard;  // Tables from ratesPath(), loaded once
+
+    List<BracketTable> deductions;  // Contribution tables in file order
+    BracketTable tax;               // Withholding tax table
+
+    // Tables from the rates file; fails rather than guess rates when there is none
+    public static synchronized ContributionTables standard() {
+        if (standard == null) {
+            String path = ratesPath();
+            try (Reader source = new FileReader(path, StandardCharsets.UTF_8)) {
+                standard = load(source);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error loading rates from " + path, e);  // Never guess rates
+            }
+        }
+        return standard;
+    }
+
+    // The motorph.rates file if set, else the rates file in the data directory, else the copy
+    // shipped with the sources
+    static String ratesPath() {
+        if (RATES_PATH != null) return RATES_PATH;
+        String path = DataLoader.dataFile(DataLoader.DATA_DIRECTORY, DataLoader.RATES_FILE);
+        if (Files.exists(Paths.get(path))) return path;
+        return DataLoader.dataFile(DataLoader.SHIPPED_DIRECTORY, DataLoader.RATES_FILE);
+    }
+
+    // Read tables: Type (deduction or tax), Name, Up To, Inclusive, Fixed, Rate, Over and an optional
+    // Rounding (half-up, half-even or down, default half-up) for the rate's fraction of a centavo.
+    // Rows of one table are consecutive, share one rounding rule and end with an open-ended row (blank Up To).
+    public static ContributionTables load(Reader source) throws IOException {
+        ContributionTables tables = new ContributionTables();
+        tables.deductions = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(source)) {
+            csv.nextRow();  // Skip header
+            String name = null;
+            Centavos.Rounding rounding = null;
+            List<double[]> rows = new ArrayList<>();  // limit, inclusive, fixed, rate, over
+            while (csv.nextRow()) {
+                if (csv.fieldCount() == 1 && csv.isEmpty(0)) continue;  // Blank line
+                if (csv.fieldCount() < 7) throw new IOException("Row " + csv.rowNumber() + ": expected 7 columns");
+                String type = csv.field(0);
+                if (name == null) name = csv.field(1);
+                if (!name.equals(csv.field(1))) throw new IOException("Row " + csv.rowNumber() + ": " + name + " has no open-ended row");
+                Centavos.Rounding rowRounding;
+                try {
+                    rowRounding = Centavos.Rounding.parse(csv.fieldCount() > 7 ? csv.field(7) : "");
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Row " + csv.rowNumber() + ": unknown rounding " + csv.field(7));
+                }
+                if (rounding == null) rounding = rowRounding;
+                if (rowRounding != rounding) throw new IOException("Row " + csv.rowNumber() + ": " + name + " mixes rounding rules");
+                boolean openEnded = csv.isEmpty(2);
+                double limit = openEnded ? Double.POSITIVE_INFINITY : csv.doubleField(2);
+                if (!rows.isEmpty() && limit <= rows.get(rows.size() - 1)[0]) {
+                    throw new IOException("Row " + csv.rowNumber() + ": limits must increase");
+                }
+                rows.add(new double[]{limit, csv.field(3).equalsIgnoreCase("yes") ? 1 : 0,
+                    csv.doubleField(4), csv.doubleField(5), csv.doubleField(6)});
+                if (!openEnded) continue;
+
+                // Last row of a table
+                BracketTable table = toTable(name, rows, rounding);
+                if (type.equals("tax")) tables.tax = table;
+                else if (type.equals("deduction")) tables.deductions.add(table);
+                else throw new IOException("Row " + csv.rowNumber() + ": unknown type " + type);
+                name = null;
+                rounding = null;
+                rows.clear();
+            }
+            if (name != null) throw new IOException(name + " has no open-ended row");
+        }
+        if (tables.tax == null) throw new IOException("No tax table");
+        return tables;
+    }
+
+    // Turn collected rows into a table in centavos and millionths
+    private static BracketTable toTable(String name, List<double[]> rows, Centavos.Rounding rounding) {
+        int n = rows.size();
+        long[] limits = new long[n - 1];
+        boolean[] inclusive = new boolean[n - 1];
+        long[] fixed = new long[n], rate = new long[n], over = new long[n];
+        for (int i = 0; i < n; i++) {
+            double[] row = rows.get(i);
+            if (i < n - 1) {
+                limits[i] = Centavos.of(row[0]);
+                inclusive[i] = row[1] == 1;
+            }
+            fixed[i] = Centavos.of(row[2]);
+            rate[i] = Centavos.rate(row[3]);
+            over[i] = Centavos.of(row[4]);
+        }
+        return new BracketTable(name, limits, inclusive, fixed, rate, over, rounding);
+    }
+}
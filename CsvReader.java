@@ -0,0 +1,275 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.Closeable;            // Closeable readers
+import java.io.IOException;           // Input/output exceptions
+import java.io.Reader;                // Character streams
+import java.util.*;                   // Collections and utilities
+
+// Streams CSV rows through reusable buffers without regular expressions
+class CsvReader implements Closeable {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    Reader reader;          // Source of characters
+    char[] buffer;          // Raw characters read from the source
+    int position;           // Next unread character in buffer
+    int limit;              // End of valid characters in buffer
+    char[] row;             // Unquoted characters of the current row
+    int[] fieldStart;       // Start of each field in row
+    int[] fieldEnd;         // End of each field in row
+    int fieldCount;         // Number of fields in the current row
+    long rowNumber;         // Rows read so far, header included
+    long byteOffset;        // UTF-8 bytes of the source consumed so far
+    long rowOffset;         // UTF-8 byte offset where the current row starts
+    FieldSequence sequence; // Reusable view of one field
+
+    // Wrap a reader
+    public CsvReader(Reader reader) {
+        this(reader, 1 << 16);  // 64K read buffer
+    }
+
+    // Wrap a reader with a read buffer of the given number of characters
+    public CsvReader(Reader reader, int bufferSize) {
+        this.reader = reader;
+        buffer = new char[Math.max(bufferSize, 16)];
+        row = new char[256];
+        fieldStart = new int[32];
+        fieldEnd = new int[32];
+        sequence = new FieldSequence();
+    }
+
+    // Read the next row; returns false at end of input
+    public boolean nextRow() throws IOException {
+        fieldCount = 0;
+        int length = 0;          // Characters copied into row
+        boolean quoted = false;  // Inside a quoted field
+        boolean rowStarted = false;
+        long bytes = byteOffset;  // Bytes consumed, counted as UTF-8
+        rowOffset = bytes;
+        startField(0);
+
+        while (true) {
+            if (position == limit && !fill()) {
+                byteOffset = bytes;
+                if (!rowStarted) return false;  // Clean end of input
+                endField(length);
+                rowNumber++;
+                return true;                    // Last row without newline
+            }
+            char c = buffer[position++];
+            bytes += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;  // A surrogate pair is 4
+            rowStarted = true;
+
+            if (quoted) {
+                if (c == '"') {
+                    if (position == limit) fill();  // Look ahead for escaped quote
+                    if (position < limit && buffer[position] == '"') {
+                        position++;                 // Escaped quote
+                        bytes++;
+                        length = append(length, '"');
+                    } else {
+                        quoted = false;             // Closing quote
+                    }
+                } else {
+                    length = append(length, c);     // Quoted content, commas included
+                }
+            } else if (c == ',') {
+                endField(length);                   // Field separator
+                startField(length);
+            } else if (c == '\n') {
+                endField(length);                   // End of row
+                rowNumber++;
+                byteOffset = bytes;
+                return true;
+            } else if (c == '"' && length == fieldStart[fieldCount]) {
+                quoted = true;                      // Opening quote
+            } else if (c != '\r') {
+                length = append(length, c);         // Plain content
+            }
+        }
+    }
+
+    // Number of fields in the current row
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    // Field text with surrounding whitespace removed
+    public String field(int index) {
+        int start = trimStart(index), end = trimEnd(index);
+        return new String(row, start, end - start);
+    }
+
+    // Field as a reusable character view, valid until the next field is requested
+    public CharSequence fieldSequence(int index) {
+        sequence.start = trimStart(index);
+        sequence.end = trimEnd(index);
+        return sequence;
+    }
+
+    // Whether a field is blank
+    public boolean isEmpty(int index) {
+        return trimStart(index) == trimEnd(index);
+    }
+
+    // Field as a whole number, ignoring thousands separators
+    public long longField(int index) {
+        int i = trimStart(index), end = trimEnd(index);
+        boolean negative = i < end && row[i] == '-';
+        if (negative) i++;
+        long value = 0;
+        int digits = 0;
+        for (; i < end; i++) {
+            char c = row[i];
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');  // Accumulate digit
+                if (++digits > 18) throw badNumber(index);
+            } else if (c != ',' || digits == 0) {
+                throw badNumber(index);          // Not a number
+            }
+        }
+        if (digits == 0) throw badNumber(index);
+        return negative ? -value : value;
+    }
+
+    // Field as a decimal number, ignoring thousands separators
+    public double doubleField(int index) {
+        int i = trimStart(index), end = trimEnd(index);
+        boolean negative = i < end && row[i] == '-';
+        if (negative) i++;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;  // Digits after the decimal point, -1 before it
+        for (; i < end; i++) {
+            char c = row[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (scale >= 0) scale++;
+                if (++digits > 15) return slowDouble(index);  // Beyond exact range
+            } else if (c == '.' && scale < 0) {
+                scale = 0;                                   // Decimal point
+            } else if (c != ',' || scale >= 0 || digits == 0) {
+                return slowDouble(index);                    // Exponent or bad text
+            }
+        }
+        if (digits == 0) throw badNumber(index);
+        // Both operands are exact, so one division rounds correctly
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    // Field as days since 1970-01-01
+    public int epochDayField(int index) {
+        return TimeCodec.parseDate(fieldSequence(index));
+    }
+
+    // Field as minutes since midnight; TimeCodec.NO_TIME if blank, BAD_TIME if unreadable
+    public int minuteOfDayField(int index) {
+        return TimeCodec.parseMinuteOfDay(fieldSequence(index));
+    }
+
+    // Rows read so far, header included
+    public long rowNumber() {
+        return rowNumber;
+    }
+
+    // Byte offset of the current row in a UTF-8 source, and its length with the line ending
+    public long rowOffset() {
+        return rowOffset;
+    }
+
+    public long rowBytes() {
+        return byteOffset - rowOffset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Refill the read buffer; returns false at end of input
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    // Append one character to the row buffer
+    private int append(int length, char c) {
+        if (length == row.length) row = Arrays.copyOf(row, length * 2);
+        row[length] = c;
+        return length + 1;
+    }
+
+    // Open a new field at the given row offset
+    private void startField(int offset) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = offset;
+    }
+
+    // Close the current field at the given row offset
+    private void endField(int offset) {
+        fieldEnd[fieldCount++] = offset;
+    }
+
+    // First non-blank character of a field
+    private int trimStart(int index) {
+        int i = fieldStart[index], end = fieldEnd[index];
+        while (i < end && row[i] <= ' ') i++;
+        return i;
+    }
+
+    // One past the last non-blank character of a field
+    private int trimEnd(int index) {
+        int start = trimStart(index), i = fieldEnd[index];
+        while (i > start && row[i - 1] <= ' ') i--;
+        return i;
+    }
+
+    // Fallback for numbers outside the fast path
+    private double slowDouble(int index) {
+        return Double.parseDouble(field(index).replace(",", ""));
+    }
+
+    // Error for a field that is not a number
+    private NumberFormatException badNumber(int index) {
+        return new NumberFormatException("Row " + rowNumber + ": not a number: \"" + field(index) + "\"");
+    }
+
+    // Character view over part of the row buffer
+    private class FieldSequence implements CharSequence {
+        int start;  // First character
+        int end;    // One past the last character
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return row[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(row, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return new String(row, start, end - start);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.FileReader;            // File handling
+import java.io.IOException;           // Input/output exceptions
+import java.io.UncheckedIOException;  // Input/output errors inside tasks
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.channels.FileChannel; // File channels
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Paths;           // File path factory
+import java.nio.file.StandardOpenOption; // File open modes
+import java.util.*;                   // Collections and utilities
+import java.util.concurrent.ForkJoinPool; // Parallel task pool
+
+// Handles data loading from files
+class DataLoader {
+    static final long MIN_CHUNK_BYTES = 1 << 20;          // Smallest chunk worth a parallel task
+    static final long MAX_CHUNK_BYTES = Integer.MAX_VALUE; // Largest region one mapping can cover
+    static final String DATA_DIRECTORY = System.getProperty("motorph.data", "src");  // Default home of the data files
+    static final String EMPLOYEES_FILE = "motorph_employee_data_complete.csv";       // File names inside it
+    static final String ATTENDANCE_FILE = "attendance_record.csv";
+    static final String SNAPSHOT_FILE = "motorph.snapshot";
+    static final String PARTITION_DIRECTORY = "attendance_partitions";
+    static final String RATES_FILE = "contribution_tables.csv";
+    static final String SHIPPED_DIRECTORY = "filestoberead";  // Data files as shipped with the sources
+
+    // Path of a data file inside a data directory
+    public static String dataFile(String directory, String fileName) {
+        return directory + "/" + fileName;
+    }
+
+    // Load a data directory as a store that can reload it: attendance is read month by month when
+    // the directory has been partitioned, otherwise whole through its snapshot when valid
+    public static PayrollDataStore openStore(String directory) throws IOException {
+        String employeesPath = dataFile(directory, EMPLOYEES_FILE);
+        String attendancePath = dataFile(directory, ATTENDANCE_FILE);
+        String partitionDirectory = dataFile(directory, PARTITION_DIRECTORY);
+        if (AttendancePartitions.exists(partitionDirectory)) {
+            AttendancePartitions partitions = AttendancePartitions.open(partitionDirectory, attendancePath);
+            return new PayrollDataStore(new PayrollData(loadEmployees(employeesPath), partitions, 0),
+                employeesPath, attendancePath);
+        }
+        PayrollData data = loadAll(employeesPath, attendancePath, dataFile(directory, SNAPSHOT_FILE));
+        return new PayrollDataStore(data, employeesPath, attendancePath);
+    }
+
+    // Load employee data from CSV
+    public static Map<String, Employee> loadEmployees(String filePath) throws IOException {
+        long started = Metrics.start();
+        EmployeeTable employees = new EmployeeTable(filePath);  // Create off-heap storage
+        int rejected = 0;
+        try (CsvReader csv = new CsvReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            csv.nextRow();  // Skip header
+            while (csv.nextRow()) {  // Read each row
+                if (csv.fieldCount() < 19) {  // Validate columns
+                    rejected++;
+                } else {
+                    // Store what payroll and the rollups read; the full name is joined only when asked
+                    // for, and the display-only columns are read back from the row when someone views them
+                    employees.add(
+                        csv.field(0),         // ID
+                        csv.field(2),         // First name
+                        csv.field(1),         // Last name
+                        csv.field(3),         // Birthday
+                        csv.doubleField(13),  // Salary, thousands separators allowed
+                        csv.doubleField(18),  // Hourly rate
+                        csv.field(11),        // Position
+                        csv.field(12),        // Immediate supervisor
+                        csv.rowOffset(),      // Where the row starts
+                        (int) csv.rowBytes()  // How long it is
+                    );
+                }
+            }
+        }
+        Metrics.add(Metrics.EMPLOYEE_ROWS_PARSED, employees.size());
+        Metrics.add(Metrics.EMPLOYEE_ROWS_REJECTED, rejected);
+        Metrics.LOAD_EMPLOYEES.recordSince(started);
+        return employees.asMap();  // Return populated map
+    }
+
+    // Load attendance data from CSV
+    public static void loadAttendance(AttendanceRecord attendance, String filePath) throws IOException {
+        long started = Metrics.start();
+        int parsed = 0, rejected = 0;
+        try (CsvReader csv = new CsvReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            csv.nextRow();  // Skip header
+            while (csv.nextRow()) {  // Read each row
+                if (csv.fieldCount() == 6) {  // Validate columns
+                    int day = csv.epochDayField(3);  // Get date
+                    if (day == TimeCodec.INVALID_DATE) {  // Counted, not logged per row
+                        rejected++;
+                        continue;
+                    }
+                    int logIn = csv.minuteOfDayField(4);   // Get login time
+                    int logOut = csv.minuteOfDayField(5);  // Get logout time
+                    attendance.addAttendance(csv.fieldSequence(0), day, logIn, logOut);  // Add record
+                    parsed++;
+                } else {
+                    rejected++;
+                }
+            }
+        }
+        attendance.sort();  // Order rows for range queries
+        Metrics.add(Metrics.ATTENDANCE_ROWS_PARSED, parsed);
+        Metrics.add(Metrics.ATTENDANCE_ROWS_REJECTED, rejected);
+        Metrics.LOAD_ATTENDANCE.recordSince(started);
+    }
+
+    // Load attendance data by memory-mapping the file and parsing chunks in parallel, up to the
+    // last newline. Returns where the rows read end, also saved in the file's sidecar.
+    public static AttendanceWatermark loadAttendanceParallel(AttendanceRecord attendance, String filePath)
+            throws IOException {
+        long started = Metrics.start();
+        AttendanceWatermark watermark;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long first = nextLineStart(channel, 0, size);  // Skip header
+            long end = lastLineEnd(channel, size);         // A last line without a newline may still be written
+            loadAttendanceRange(attendance, channel, first, Math.max(first, end));
+            watermark = AttendanceWatermark.compute(channel, end);
+        }
+        saveWatermark(watermark, filePath);  // Remember how far we read
+        Metrics.LOAD_ATTENDANCE.recordSince(started);
+        return watermark;
+    }
+
+    // Load employees and attendance from the binary snapshot when it is still valid,
+    // otherwise from the CSVs, and refresh the snapshot for the next start
+    public static PayrollData loadAll(String employeesPath, String attendancePath,
+                                      String snapshotPath) throws IOException {
+        SnapshotStore snapshot = new SnapshotStore(snapshotPath, employeesPath, attendancePath);
+        long started = Metrics.start();
+        PayrollData data = snapshot.load();
+        if (data != null) Metrics.LOAD_SNAPSHOT.recordSince(started);
+        if (data != null && snapshot.attendanceCurrent) return data;  // Nothing changed
+
+        if (data != null) {
+            data.watermark = ingestAppendedAttendance(data.attendance, attendancePath, snapshot.watermark);  // Read the new tail
+        } else {
+            data = new PayrollData(loadEmployees(employeesPath), new AttendanceRecord());
+            data.watermark = loadAttendanceParallel(data.attendance, attendancePath);  // Full parse
+        }
+
+        try {
+            snapshot.write(data, data.watermark);
+        } catch (IOException e) {
+            System.err.println("Could not save snapshot: " + e.getMessage());  // Next start parses again
+        }
+        return data;
+    }
+
+    // Add only the rows appended since the position in the file's sidecar, up to the last newline;
+    // reload in full if earlier rows changed. Returns the change in (employee, day) rows.
+    public static int ingestAppendedAttendance(AttendanceRecord attendance, String filePath) throws IOException {
+        int before = attendance.size();
+        saveWatermark(ingestAppendedAttendance(attendance, filePath, AttendanceWatermark.read(filePath)), filePath);
+        return attendance.size() - before;
+    }
+
+    // Same as above, starting from a watermark the caller kept; null reads the whole file. Returns
+    // where the rows read end, for the caller to keep; the sidecar is left alone.
+    static AttendanceWatermark ingestAppendedAttendance(AttendanceRecord attendance, String filePath,
+                                                        AttendanceWatermark watermark) throws IOException {
+        long started = Metrics.start();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start;
+            if (watermark != null && watermark.matches(channel)) {
+                start = watermark.offset;                    // Prefix unchanged, read the tail
+            } else {
+                attendance.clear();                          // Prefix changed, start over
+                start = nextLineStart(channel, 0, size);     // Skip header
+            }
+            long end = lastLineEnd(channel, size);           // Leave a line still being written
+            loadAttendanceRange(attendance, channel, start, Math.max(start, end));
+            Metrics.INGEST_ATTENDANCE.recordSince(started);
+            return AttendanceWatermark.compute(channel, end);
+        }
+    }
+
+    // Parse newline-aligned chunks of [first, size) in parallel
+    private static void loadAttendanceRange(AttendanceRecord attendance, FileChannel channel,
+                                           long first, long size) throws IOException {
+        // Split into chunks, several per core and none over the map limit
+        int cores = ForkJoinPool.commonPool().getParallelism();
+        long chunkCount = Math.max((size - first) / MAX_CHUNK_BYTES + 1,
+            Math.min(cores * 4L, (size - first) / MIN_CHUNK_BYTES + 1));
+        List<AttendanceChunkTask> tasks = new ArrayList<>();
+        long start = first;
+        for (long c = 1; c <= chunkCount && start < size; c++) {
+            long end = c == chunkCount ? size
+                : nextLineStart(channel, Math.max(start, first + (size - first) * c / chunkCount), size);
+            if (end > start) tasks.add(new AttendanceChunkTask(channel, start, end));
+            start = end;
+        }
+
+        // Parse chunks on the fork-join pool
+        for (AttendanceChunkTask task : tasks) task.fork();
+        try {
+            for (AttendanceChunkTask task : tasks) {
+                attendance.addAll(task.join());  // Merge segments in file order
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();  // Mapping failed
+        }
+        attendance.sort();  // Order rows for range queries
+    }
+
+    // Save where a read ended in the file's sidecar
+    private static void saveWatermark(AttendanceWatermark watermark, String filePath) {
+        try {
+            watermark.write(filePath);
+        } catch (IOException e) {
+            System.err.println("Could not save attendance watermark: " + e.getMessage());  // Next start reloads
+        }
+    }
+
+    // Position just after the last newline before size, or 0 if there is none
+    private static long lastLineEnd(FileChannel channel, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - probe.capacity());
+            probe.clear().limit((int) (end - start));
+            while (probe.hasRemaining() && channel.read(probe, start + probe.position()) > 0) { }
+            for (int i = probe.position() - 1; i >= 0; i--) {
+                if (probe.get(i) == '\n') return start + i + 1;
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    // Position just after the next newline at or after the given position
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;  // No further newline
+    }
+}
@@ -0,0 +1,72 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+
+// Inverted index from epoch day to the set of employee ordinals present that day. Copies share
+// each day's set until one side writes to it, so a reload copies only the days it touches.
+class DayIndex {
+    static final BitSet EMPTY = new BitSet();  // Set returned for a day nobody worked; never written
+
+    int firstDay;      // Day of slot 0
+    BitSet[] days;     // Day - firstDay -> ordinals present, null when none
+    boolean[] owned;   // Day - firstDay -> whether the set belongs to this index alone
+
+    // Empty index
+    public DayIndex() {
+        days = new BitSet[0];
+        owned = new boolean[0];
+    }
+
+    // Index sharing every day's set with this one
+    public DayIndex copy() {
+        DayIndex copy = new DayIndex();
+        copy.firstDay = firstDay;
+        copy.days = days.clone();
+        copy.owned = new boolean[days.length];  // Neither side may write a shared set in place
+        Arrays.fill(owned, false);
+        return copy;
+    }
+
+    // Ordinals present on a day; callers must not modify the result
+    public BitSet get(int day) {
+        long slot = (long) day - firstDay;
+        if (slot < 0 || slot >= days.length || days[(int) slot] == null) return EMPTY;
+        return days[(int) slot];
+    }
+
+    // Mark an ordinal present or absent on a day
+    public void set(int day, int ordinal, boolean present) {
+        if (!present && get(day).isEmpty()) return;  // Nothing to clear
+        int slot = slotFor(day);
+        BitSet bits = days[slot];
+        if (!owned[slot]) {
+            bits = bits == null ? new BitSet() : (BitSet) bits.clone();  // Copy on first write
+            days[slot] = bits;
+            owned[slot] = true;
+        }
+        bits.set(ordinal, present);
+    }
+
+    // Slot for a day, widening the covered range if needed
+    private int slotFor(int day) {
+        if (days.length == 0) firstDay = day;
+        if (day < firstDay) {
+            int shift = Math.max(firstDay - day, days.length);  // Widen by at least half
+            BitSet[] wider = new BitSet[days.length + shift];
+            boolean[] widerOwned = new boolean[wider.length];
+            System.arraycopy(days, 0, wider, shift, days.length);
+            System.arraycopy(owned, 0, widerOwned, shift, days.length);
+            days = wider;
+            owned = widerOwned;
+            firstDay -= shift;
+        }
+        int slot = day - firstDay;
+        if (slot >= days.length) {
+            int capacity = Math.max(slot + 1, days.length * 2);
+            days = Arrays.copyOf(days, capacity);
+            owned = Arrays.copyOf(owned, capacity);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,19 @@
+package revisedms2;
+
+// Base class for all deduction types
+abstract class Deduction {
+    String name;  // Name of the deduction
+    
+    // Constructor to initialize deduction name
+    public Deduction(String name) {
+        this.name = name;  // Set deduction name
+    }
+    
+    // Abstract method to calculate deduction amount, in centavos
+    public abstract long calculate(long centavos);
+    
+    // Getter for deduction name
+    public String getName() {
+        return name;  // Return name of deduction
+    }
+}
@@ -0,0 +1,50 @@
+package revisedms2;
+
+// Represents an employee
+class Employee {
+    String employeeNumber;   // Employee ID
+    String fullName;        // Full name
+    String birthday;        // Date of birth
+    double basicSalary;     // Monthly salary
+    double hourlyRate;      // Hourly wage
+    String position;        // Job title
+    String immediateSupervisor;  // Supervisor's name, N/A at the top
+
+    // Constructor for views that read their fields from elsewhere
+    protected Employee() {
+    }
+
+    // Constructor to initialize employee
+    public Employee(String employeeNumber, String fullName, String birthday, 
+                   double basicSalary, double hourlyRate) {
+        this(employeeNumber, fullName, birthday, basicSalary, hourlyRate, "", "");
+    }
+
+    // Constructor with position and supervisor
+    public Employee(String employeeNumber, String fullName, String birthday,
+                   double basicSalary, double hourlyRate, String position, String immediateSupervisor) {
+        this.employeeNumber = employeeNumber;  // Set ID
+        this.fullName = fullName;              // Set name
+        this.birthday = birthday;             // Set birthday
+        this.basicSalary = basicSalary;       // Set salary
+        this.hourlyRate = hourlyRate;         // Set hourly rate
+        this.position = position;             // Set position
+        this.immediateSupervisor = immediateSupervisor;  // Set supervisor
+    }
+
+    // Getter methods
+    public String getEmployeeNumber() { return employeeNumber; }
+    public String getFullName() { return fullName; }
+    public String getBirthday() { return birthday; }
+    public double getBasicSalary() { return basicSalary; }
+    public double getHourlyRate() { return hourlyRate; }
+    public long getBasicSalaryCentavos() { return Centavos.of(getBasicSalary()); }
+    public long getHourlyRateCentavos() { return Centavos.of(getHourlyRate()); }
+    public String getPosition() { return position; }
+    public String getImmediateSupervisor() { return immediateSupervisor; }
+
+    // Every column of the master file beyond the ones payroll reads; blank where not known
+    public EmployeeDetails getDetails() {
+        return new EmployeeDetails("", "", "", "", "", "", "", getPosition(), getImmediateSupervisor());
+    }
+}
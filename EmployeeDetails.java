@@ -0,0 +1,7 @@
+package revisedms2;
+
+// Employee master columns that payroll does not need, decoded only when someone views them
+record EmployeeDetails(String address, String phoneNumber, String sssNumber, String philhealthNumber,
+                       String tinNumber, String pagibigNumber, String status, String position,
+                       String immediateSupervisor) {
+}
@@ -0,0 +1,320 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.io.StringReader;          // Reading text in memory
+import java.lang.ref.Cleaner;         // Closing channels of unreachable tables
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.ByteOrder;            // Byte order of binary files
+import java.nio.channels.FileChannel; // File channels
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Paths;           // File path factory
+import java.nio.file.StandardOpenOption; // File open modes
+import java.util.*;                   // Collections and utilities
+
+// Employee master data in fixed-width records outside the Java heap. Employee numbers that are
+// plain digits are stored as ints, names as ids in one dictionary, and birthdays as epoch days,
+// so the heap holds only the distinct strings and an int index whatever the headcount. The
+// other columns stay in the master file: each record keeps its row's byte offset and length,
+// and details(row) reads the row back when someone views them. Built once by the loader, then
+// read-only; callers get Employee flyweights through asMap().
+class EmployeeTable {
+    static final int RECORD_BYTES = 56;  // Size of one record
+    static final int NUMBER = 0;         // int: number value, or -(dictionary id + 1) if not plain digits
+    static final int FIRST_NAME = 4;     // int: dictionary id
+    static final int LAST_NAME = 8;      // int: dictionary id, -1 when FIRST_NAME holds the full name
+    static final int BIRTH_DAY = 12;     // int: epoch day, TimeCodec.INVALID_DATE if unreadable
+    static final int BIRTHDAY_TEXT = 16; // int: dictionary id of the original text, -1 if it formats back
+    static final int ROW_BYTES = 20;     // int: length of the row in the source file
+    static final int ROW_OFFSET = 24;    // long: byte offset of the row in the source file, -1 if none
+    static final int BASIC_SALARY = 32;  // long: centavos
+    static final int HOURLY_RATE = 40;   // long: centavos
+    static final int POSITION = 48;      // int: dictionary id
+    static final int SUPERVISOR = 52;    // int: dictionary id
+    static final Cleaner CLEANER = Cleaner.create();  // Closes source channels of dropped tables
+
+    ByteBuffer records;                       // Direct, little-endian
+    int size;                                 // Records in use
+    StringDictionary dictionary = new StringDictionary();  // Names, positions and supervisors
+    int[] slots = new int[64];                // Open-addressing index of row + 1 by employee number
+    String sourcePath;                        // UTF-8 master file the row offsets point into
+    private FileChannel source;               // Open on sourcePath once details are first read
+    private boolean sourceChanged;            // Whether a detail read found the file changed
+
+    // Create an empty table over a master file
+    public EmployeeTable(String sourcePath) {
+        records = ByteBuffer.allocateDirect(1024 * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.sourcePath = sourcePath;
+    }
+
+    // Add an employee, replacing an earlier one with the same number; lastName may be null
+    // when firstName is already the full name, and rowOffset -1 when no source row holds the details
+    public void add(String employeeNumber, String firstName, String lastName, String birthday,
+                    double basicSalary, double hourlyRate, String position, String immediateSupervisor,
+                    long rowOffset, int rowBytes) {
+        long key = key(employeeNumber, true);
+        int row = rowOfKey(key);
+        if (row < 0) {
+            if ((size + 1) * RECORD_BYTES > records.capacity()) grow();
+            row = size++;
+            insert(key, row);
+        }
+        int base = row * RECORD_BYTES;
+        int day = TimeCodec.parseDate(birthday);
+        records.putInt(base + NUMBER, (int) (key >= 0 ? key : key >> 32));
+        records.putInt(base + FIRST_NAME, dictionary.intern(firstName));
+        records.putInt(base + LAST_NAME, lastName == null ? -1 : dictionary.intern(lastName));
+        records.putInt(base + BIRTH_DAY, day);
+        records.putInt(base + BIRTHDAY_TEXT, day != TimeCodec.INVALID_DATE
+            && TimeCodec.formatDate(day).equals(birthday) ? -1 : dictionary.intern(birthday));
+        records.putInt(base + ROW_BYTES, rowBytes);
+        records.putLong(base + ROW_OFFSET, rowOffset);
+        records.putLong(base + BASIC_SALARY, Centavos.of(basicSalary));
+        records.putLong(base + HOURLY_RATE, Centavos.of(hourlyRate));
+        records.putInt(base + POSITION, dictionary.intern(position));
+        records.putInt(base + SUPERVISOR, dictionary.intern(immediateSupervisor));
+        if ((size * 2) > slots.length) rehash();  // Keep load under half
+    }
+
+    // Number of employees
+    public int size() {
+        return size;
+    }
+
+    // Row of an employee number, or -1 if absent
+    public int rowOf(CharSequence employeeNumber) {
+        long key = key(employeeNumber, false);
+        return key == Long.MIN_VALUE ? -1 : rowOfKey(key);
+    }
+
+    // Flyweight over a row
+    public Employee view(int row) {
+        return new EmployeeView(this, row);
+    }
+
+    // Read-only map from employee number to flyweights, for callers written against Map
+    public Map<String, Employee> asMap() {
+        return new ReadOnlyMap(this);
+    }
+
+    // Row accessors
+    public String employeeNumber(int row) {
+        int number = records.getInt(row * RECORD_BYTES + NUMBER);
+        return number >= 0 ? Integer.toString(number) : dictionary.get(-number - 1);
+    }
+    public String firstName(int row) { return dictionary.get(records.getInt(row * RECORD_BYTES + FIRST_NAME)); }
+    public String lastName(int row) {
+        int id = records.getInt(row * RECORD_BYTES + LAST_NAME);
+        return id < 0 ? null : dictionary.get(id);
+    }
+    public int birthDay(int row) { return records.getInt(row * RECORD_BYTES + BIRTH_DAY); }
+    public String birthday(int row) {
+        int text = records.getInt(row * RECORD_BYTES + BIRTHDAY_TEXT);
+        return text >= 0 ? dictionary.get(text) : TimeCodec.formatDate(birthDay(row));
+    }
+    public long basicSalary(int row) { return records.getLong(row * RECORD_BYTES + BASIC_SALARY); }
+    public long hourlyRate(int row) { return records.getLong(row * RECORD_BYTES + HOURLY_RATE); }
+    public String position(int row) { return dictionary.get(records.getInt(row * RECORD_BYTES + POSITION)); }
+    public String immediateSupervisor(int row) { return dictionary.get(records.getInt(row * RECORD_BYTES + SUPERVISOR)); }
+    public long rowOffset(int row) { return records.getLong(row * RECORD_BYTES + ROW_OFFSET); }
+    public int rowBytes(int row) { return records.getInt(row * RECORD_BYTES + ROW_BYTES); }
+
+    // Display-only columns, read back from the row's bytes in the master file. They are blank
+    // when there is no source row, or when the file changed since it was loaded until the next reload.
+    public EmployeeDetails details(int row) {
+        long offset = rowOffset(row);
+        if (offset >= 0) {
+            ByteBuffer bytes = ByteBuffer.allocate(rowBytes(row));
+            try {
+                FileChannel channel = source();
+                while (bytes.hasRemaining()) {
+                    if (channel.read(bytes, offset + bytes.position()) < 0) break;  // File shrank
+                }
+                CsvReader csv = new CsvReader(new StringReader(
+                    new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8)), bytes.capacity());
+                if (csv.nextRow() && csv.fieldCount() >= 19 && csv.field(0).equals(employeeNumber(row))) {
+                    return new EmployeeDetails(
+                        csv.field(4),   // Address
+                        csv.field(5),   // Phone number
+                        csv.field(6),   // SSS number
+                        csv.field(7),   // PhilHealth number
+                        csv.field(8),   // TIN
+                        csv.field(9),   // Pag-IBIG number
+                        csv.field(10),  // Status
+                        position(row),
+                        immediateSupervisor(row)
+                    );
+                }
+                warnChanged("changed since it was loaded");
+            } catch (IOException e) {
+                warnChanged(e.getMessage());
+            }
+        }
+        return new EmployeeDetails("", "", "", "", "", "", "", position(row), immediateSupervisor(row));
+    }
+
+    // Channel on the master file, opened on first use, shared by every read and closed with the table
+    private synchronized FileChannel source() throws IOException {
+        if (source == null) {
+            FileChannel channel = FileChannel.open(Paths.get(sourcePath), StandardOpenOption.READ);
+            CLEANER.register(this, () -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Nothing left to read from it
+                }
+            });
+            source = channel;
+        }
+        return source;
+    }
+
+    // Report once that details could not be read
+    private synchronized void warnChanged(String reason) {
+        if (sourceChanged) return;
+        sourceChanged = true;
+        System.err.println("Employee details unavailable until the next reload: " + sourcePath + " " + reason);
+    }
+
+    // Index key: the value of a plain-digit number below 10^9, otherwise the dictionary id in the
+    // high half, negative. Long.MIN_VALUE when adding is off and the number was never added.
+    private long key(CharSequence employeeNumber, boolean adding) {
+        int length = employeeNumber.length();
+        if (length > 0 && length <= 9 && (length == 1 || employeeNumber.charAt(0) != '0')) {
+            int value = 0;
+            int i = 0;
+            for (; i < length; i++) {
+                char c = employeeNumber.charAt(i);
+                if (c < '0' || c > '9') break;
+                value = value * 10 + (c - '0');
+            }
+            if (i == length) return value;  // Plain digits
+        }
+        String text = employeeNumber.toString();
+        int id = adding ? dictionary.intern(text) : dictionary.idOf(text);
+        return id < 0 ? Long.MIN_VALUE : (long) (-id - 1) << 32;
+    }
+
+    // Row stored under a key, or -1
+    private int rowOfKey(long key) {
+        int mask = slots.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) return -1;  // Free slot ends the probe
+            if (keyAt(entry - 1) == key) return entry - 1;
+        }
+    }
+
+    // Key of a stored row
+    private long keyAt(int row) {
+        int number = records.getInt(row * RECORD_BYTES + NUMBER);
+        return number >= 0 ? number : (long) number << 32;
+    }
+
+    // Put a row in the index
+    private void insert(long key, int row) {
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0) slot = (slot + 1) & mask;
+        slots[slot] = row + 1;
+    }
+
+    // Double the index
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        for (int row = 0; row < size; row++) insert(keyAt(row), row);
+    }
+
+    // Double the record storage
+    private void grow() {
+        ByteBuffer bigger = ByteBuffer.allocateDirect(records.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+        bigger.put(records.duplicate().position(0).limit(size * RECORD_BYTES));
+        records = bigger;
+    }
+
+    // Spread a key over the index
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Employee whose getters read one table row; holds nothing but the row
+    static class EmployeeView extends Employee {
+        final EmployeeTable table;  // Backing table
+        final int row;              // Record read by the getters
+
+        EmployeeView(EmployeeTable table, int row) {
+            this.table = table;
+            this.row = row;
+        }
+
+        @Override public String getEmployeeNumber() { return table.employeeNumber(row); }
+        @Override public String getFullName() {
+            String lastName = table.lastName(row);
+            return lastName == null ? table.firstName(row) : table.firstName(row) + " " + lastName;
+        }
+        @Override public String getBirthday() { return table.birthday(row); }
+        @Override public double getBasicSalary() { return Centavos.toPesos(table.basicSalary(row)); }
+        @Override public double getHourlyRate() { return Centavos.toPesos(table.hourlyRate(row)); }
+        @Override public long getBasicSalaryCentavos() { return table.basicSalary(row); }
+        @Override public long getHourlyRateCentavos() { return table.hourlyRate(row); }
+        @Override public String getPosition() { return table.position(row); }
+        @Override public String getImmediateSupervisor() { return table.immediateSupervisor(row); }
+        @Override public EmployeeDetails getDetails() { return table.details(row); }
+    }
+
+    // Map view keyed by employee number; entries are made on demand
+    static class ReadOnlyMap extends AbstractMap<String, Employee> {
+        final EmployeeTable table;  // Backing table
+
+        ReadOnlyMap(EmployeeTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public Employee get(Object key) {
+            if (!(key instanceof CharSequence number)) return null;
+            int row = table.rowOf(number);
+            return row < 0 ? null : table.view(row);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof CharSequence number && table.rowOf(number) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return table.size;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Employee>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, Employee>> iterator() {
+                    return new Iterator<>() {
+                        int next;  // Next row
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < table.size;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Employee> next() {
+                            if (next >= table.size) throw new NoSuchElementException();
+                            Employee emp = table.view(next++);
+                            return new AbstractMap.SimpleImmutableEntry<>(emp.getEmployeeNumber(), emp);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return table.size;
+                }
+            };
+        }
+    }
+}
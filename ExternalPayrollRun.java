@@ -0,0 +1,327 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.Closeable;            // Closeable readers
+import java.io.FileReader;            // File handling
+import java.io.IOException;           // Input/output exceptions
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.channels.FileChannel; // File channels
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.nio.file.Paths;           // File path factory
+import java.nio.file.StandardOpenOption; // File open modes
+import java.util.*;                   // Collections and utilities
+
+// Payroll for attendance files larger than the heap. Each row of the pay period is packed into a
+// long that sorts in (employee, day) order; rows are sorted in runs that fit the memory budget and
+// spilled to disk, then merged while each employee's minutes are summed and their row written.
+class ExternalPayrollRun {
+    static final String SPILL_DIRECTORY = System.getProperty("motorph.spill", System.getProperty("java.io.tmpdir"));
+    static final long MIN_BUDGET_BYTES = 1 << 20;        // Smallest memory budget accepted
+    static final int MIN_READ_BUFFER_BYTES = 64 * 1024;  // Smallest read buffer per run in a merge
+    static final int MAX_WRITE_BUFFER_BYTES = 1 << 20;   // Spill files are written through one buffer
+    static final int MAX_MERGE_WIDTH = 512;              // Runs open at once, well under file limits
+    static final long END = -1;                          // After the last record; records are never negative
+
+    // Record layout from the high bits: roster index, day within the period, log-in, log-out.
+    // The sign bit stays clear so records sort as signed longs.
+    static final int PUNCH_BITS = 12;                               // Punch codes -2..1439, offset
+    static final int DAY_BITS = 16;                                 // Periods up to 65536 days
+    static final int INDEX_BITS = 63 - DAY_BITS - 2 * PUNCH_BITS;   // Rosters up to 8M employees
+    static final int PUNCH_OFFSET = -TimeCodec.BAD_TIME;            // Lowest punch code stored as 0
+    static final int PUNCH_MASK = (1 << PUNCH_BITS) - 1;
+
+    // Source of records in sorted order, END when exhausted
+    interface RecordSource {
+        long next() throws IOException;
+    }
+
+    Employee[] roster;                    // Employees in employee number order, as in the register
+    String[] rosterNumbers;               // Their employee numbers, for binary search
+    PayrollCalculator payrollCalculator;  // Calculator
+    long budgetBytes;                     // Memory for the sort buffer or the merge buffers
+    int runsWritten;                      // Spill files written by the last register, merge passes included
+
+    // Initialize with employee data and a memory budget
+    public ExternalPayrollRun(Map<String, Employee> employees, PayrollCalculator payrollCalculator, long budgetBytes) {
+        if (budgetBytes < MIN_BUDGET_BYTES) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_BUDGET_BYTES + " bytes");
+        }
+        if (employees.size() >= 1 << INDEX_BITS) {
+            throw new IllegalArgumentException("More than " + ((1 << INDEX_BITS) - 1) + " employees");
+        }
+        roster = employees.values().toArray(new Employee[0]);
+        Arrays.sort(roster, Comparator.comparing(Employee::getEmployeeNumber));
+        rosterNumbers = new String[roster.length];
+        for (int i = 0; i < roster.length; i++) rosterNumbers[i] = roster[i].getEmployeeNumber();
+        this.payrollCalculator = payrollCalculator;
+        this.budgetBytes = budgetBytes;
+    }
+
+    // Stream the attendance file into a register for a pay period, both ends inclusive.
+    // Returns the number of entries written, one per employee.
+    public int writeRegister(String attendancePath, int startDay, int endDay, String registerPath,
+                             RegisterWriter.Format format) throws IOException {
+        if ((long) endDay - startDay >= 1 << DAY_BITS) {
+            throw new IllegalArgumentException("Pay period longer than " + (1 << DAY_BITS) + " days");
+        }
+        long started = Metrics.start();
+        runsWritten = 0;
+        List<Path> runs = new ArrayList<>();
+        try (RegisterWriter out = new RegisterWriter(registerPath, format, payrollCalculator.deductions, startDay, endDay)) {
+            RecordSource buffered = sortRuns(attendancePath, startDay, endDay, runs);
+            if (buffered != null) {
+                writeEntries(buffered, out);  // Everything fit in one buffer, so nothing touched disk
+            } else {
+                // The sort buffer was dropped with sortRuns, leaving the budget to the merge
+                while (runs.size() > mergeWidth()) runs = mergePass(runs);
+                RunMerger merger = new RunMerger(runs, (int) ((budgetBytes - writeBufferBytes()) / runs.size()));
+                try (merger) {
+                    writeEntries(merger, out);
+                }
+            }
+        } finally {
+            for (Path run : runs) Files.deleteIfExists(run);
+        }
+        Metrics.add(Metrics.REGISTER_ROWS_WRITTEN, roster.length);
+        Metrics.add(Metrics.SPILL_RUNS, runsWritten);
+        Metrics.PAYROLL_REGISTER.recordSince(started);
+        return roster.length;
+    }
+
+    // Read the attendance file once, packing rows of the period for known employees into records
+    // and spilling each full buffer as a sorted run. Returns the sorted records when no run was
+    // spilled, otherwise null with the last records spilled too.
+    private RecordSource sortRuns(String attendancePath, int startDay, int endDay, List<Path> runs) throws IOException {
+        long[] records = new long[(int) Math.min(Integer.MAX_VALUE - 8, (budgetBytes - writeBufferBytes()) / Long.BYTES)];
+        int count = 0, parsed = 0, rejected = 0;
+        ByteBuffer writeBuffer = ByteBuffer.allocate(writeBufferBytes());
+        try (CsvReader csv = new CsvReader(new FileReader(attendancePath, StandardCharsets.UTF_8))) {
+            csv.nextRow();  // Skip header
+            while (csv.nextRow()) {
+                if (csv.fieldCount() != 6) {  // Validate columns
+                    rejected++;
+                    continue;
+                }
+                int day = csv.epochDayField(3);
+                if (day == TimeCodec.INVALID_DATE) {  // Counted, not logged per row
+                    rejected++;
+                    continue;
+                }
+                parsed++;
+                if (day < startDay || day > endDay) continue;  // Outside the period
+                int index = rosterIndex(csv.fieldSequence(0));
+                if (index < 0) continue;                        // Not on the roster, so not paid
+                if (count == records.length) {
+                    runs.add(writeRun(sorted(records, count), writeBuffer));
+                    count = 0;
+                }
+                records[count++] = record(index, day - startDay, csv.minuteOfDayField(4), csv.minuteOfDayField(5));
+            }
+        }
+        Metrics.add(Metrics.ATTENDANCE_ROWS_PARSED, parsed);
+        Metrics.add(Metrics.ATTENDANCE_ROWS_REJECTED, rejected);
+        if (runs.isEmpty()) return sorted(records, count);
+        if (count > 0) runs.add(writeRun(sorted(records, count), writeBuffer));
+        return null;
+    }
+
+    // Sort the first count records in place and read them back in order
+    private static RecordSource sorted(long[] records, int count) {
+        Arrays.sort(records, 0, count);
+        int[] cursor = {0};
+        return () -> cursor[0] < count ? records[cursor[0]++] : END;
+    }
+
+    // Merge groups of runs into fewer, longer runs
+    private List<Path> mergePass(List<Path> runs) throws IOException {
+        List<Path> merged = new ArrayList<>();
+        ByteBuffer writeBuffer = ByteBuffer.allocate(writeBufferBytes());
+        int width = mergeWidth();
+        try {
+            for (int from = 0; from < runs.size(); from += width) {
+                List<Path> group = runs.subList(from, Math.min(from + width, runs.size()));
+                try (RunMerger merger = new RunMerger(group, (int) ((budgetBytes - writeBufferBytes()) / group.size()))) {
+                    merged.add(writeRun(merger, writeBuffer));
+                }
+            }
+        } catch (IOException e) {
+            for (Path run : merged) Files.deleteIfExists(run);  // The caller still deletes the inputs
+            throw e;
+        }
+        for (Path run : runs) Files.deleteIfExists(run);
+        return merged;
+    }
+
+    // Write a source's records to a new spill file
+    private Path writeRun(RecordSource records, ByteBuffer writeBuffer) throws IOException {
+        Path run = Files.createTempFile(Paths.get(SPILL_DIRECTORY), "motorph-payroll-", ".run");
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+            writeBuffer.clear();
+            for (long record = records.next(); record != END; record = records.next()) {
+                if (!writeBuffer.hasRemaining()) drain(channel, writeBuffer);
+                writeBuffer.putLong(record);
+            }
+            drain(channel, writeBuffer);
+        } catch (IOException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        runsWritten++;
+        return run;
+    }
+
+    // Write out a buffer and empty it
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    // Sum each employee's minutes from records in (employee, day) order and write their entry
+    private void writeEntries(RecordSource records, RegisterWriter out) throws IOException {
+        int[] pairs = new int[16];  // Pairs of the current day
+        long record = records.next();
+        for (int index = 0; index < roster.length; index++) {
+            long minutes = 0;
+            while (record != END && indexOf(record) == index) {
+                long employeeDay = record >>> 2 * PUNCH_BITS;
+                int count = 0;
+                for (; record != END && record >>> 2 * PUNCH_BITS == employeeDay; record = records.next()) {
+                    if (count == pairs.length) pairs = Arrays.copyOf(pairs, count * 2);
+                    pairs[count++] = pairOf(record);
+                }
+                minutes += AttendanceRecord.dayMinutes(pairs, 0, count);
+            }
+            out.write(PayrollRun.computeEntry(roster[index], minutes, payrollCalculator));
+        }
+    }
+
+    // Roster position of an employee number, or -1 if not on the roster
+    private int rosterIndex(CharSequence empNumber) {
+        int low = 0, high = rosterNumbers.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = CharSequence.compare(rosterNumbers[mid], empNumber);
+            if (order < 0) low = mid + 1;
+            else if (order > 0) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    // Runs merged at once, each with a read buffer of at least MIN_READ_BUFFER_BYTES
+    private int mergeWidth() {
+        return (int) Math.max(2, Math.min(MAX_MERGE_WIDTH, (budgetBytes - writeBufferBytes()) / MIN_READ_BUFFER_BYTES));
+    }
+
+    // Size of the spill write buffer, an eighth of the budget up to MAX_WRITE_BUFFER_BYTES
+    private int writeBufferBytes() {
+        return (int) Math.min(MAX_WRITE_BUFFER_BYTES, budgetBytes / 8) & -Long.BYTES;
+    }
+
+    // Pack one row
+    static long record(int index, int dayInPeriod, int logIn, int logOut) {
+        return (long) index << (DAY_BITS + 2 * PUNCH_BITS) | (long) dayInPeriod << 2 * PUNCH_BITS
+            | (long) (logIn + PUNCH_OFFSET) << PUNCH_BITS | (logOut + PUNCH_OFFSET);
+    }
+
+    // Roster index of a record
+    static int indexOf(long record) {
+        return (int) (record >>> (DAY_BITS + 2 * PUNCH_BITS));
+    }
+
+    // Punches of a record, packed as AttendanceRecord packs a pair
+    static int pairOf(long record) {
+        int logIn = (int) (record >>> PUNCH_BITS & PUNCH_MASK) - PUNCH_OFFSET;
+        int logOut = (int) (record & PUNCH_MASK) - PUNCH_OFFSET;
+        return AttendanceRecord.pack(logIn, logOut);
+    }
+
+    // Reads one run back through its own buffer
+    static class RunReader implements Closeable {
+        FileChannel channel;  // Run file
+        ByteBuffer buffer;    // Bytes read but not yet returned
+
+        // Open a run with a read buffer of about the given size
+        RunReader(Path run, int bufferBytes) throws IOException {
+            channel = FileChannel.open(run, StandardOpenOption.READ);
+            buffer = ByteBuffer.allocate(Math.max(Long.BYTES, bufferBytes & -Long.BYTES)).flip();
+        }
+
+        // Next record, or END after the last
+        long next() throws IOException {
+            while (buffer.remaining() < Long.BYTES) {
+                buffer.compact();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read < 0) return END;
+            }
+            return buffer.getLong();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Merges runs through a binary heap of their current records
+    static class RunMerger implements RecordSource, Closeable {
+        RunReader[] readers;  // One per run
+        long[] heads;         // Current record of each run
+        int[] heap;           // Runs with records left, smallest head first
+        int size;             // Runs in the heap
+
+        // Open every run, splitting the read budget between them
+        RunMerger(List<Path> runs, int bufferBytes) throws IOException {
+            readers = new RunReader[runs.size()];
+            heads = new long[runs.size()];
+            heap = new int[runs.size()];
+            try {
+                for (int i = 0; i < readers.length; i++) {
+                    readers[i] = new RunReader(runs.get(i), bufferBytes);
+                    heads[i] = readers[i].next();
+                    if (heads[i] != END) heap[size++] = i;
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) siftDown(i);
+        }
+
+        @Override
+        public long next() throws IOException {
+            if (size == 0) return END;
+            int run = heap[0];
+            long record = heads[run];
+            heads[run] = readers[run].next();
+            if (heads[run] == END) heap[0] = heap[--size];  // Run exhausted
+            siftDown(0);
+            return record;
+        }
+
+        // Move the run at a heap slot down until its children are not smaller
+        private void siftDown(int slot) {
+            int run = heap[slot];
+            while (true) {
+                int child = 2 * slot + 1;
+                if (child >= size) break;
+                if (child + 1 < size && heads[heap[child + 1]] < heads[heap[child]]) child++;
+                if (heads[heap[child]] >= heads[run]) break;
+                heap[slot] = heap[child];
+                slot = child;
+            }
+            heap[slot] = run;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RunReader reader : readers) {
+                if (reader != null) reader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+import java.util.concurrent.atomic.AtomicLongArray; // Histogram buckets
+import java.util.concurrent.atomic.LongAccumulator; // Running maximums
+import java.util.concurrent.atomic.LongAdder; // Low-contention counters
+
+// Log-linear latency histogram in the HDR style: eight sub-buckets per power of two of nanoseconds,
+// so any recorded value is reported within 12.5%. Recording is lock-free.
+class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 3;                // 2^3 sub-buckets per power of two
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    String name;                                           // Name in dumps and JMX
+    AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);  // Bucket -> values recorded
+    LongAdder count = new LongAdder();                     // Values recorded
+    LongAdder totalNanos = new LongAdder();                // Sum of values
+    LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);  // Largest value
+
+    // Create an empty histogram
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    // Record the time since a Metrics.start() value; free when metrics are disabled
+    public void recordSince(long startNanos) {
+        if (Metrics.ENABLED) record(System.nanoTime() - startNanos);
+    }
+
+    // Record one value in nanoseconds
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    // Smallest recorded value bound with at least the given fraction of values at or below it
+    public long percentile(double fraction) {
+        long total = count.sum();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    // Mean value in nanoseconds
+    public double mean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) totalNanos.sum() / total;
+    }
+
+    // Bucket of a value: exact below 2^3, then top four bits of the value
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+    }
+
+    // Largest value that falls in a bucket
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        long sub = bucket & (SUB_BUCKETS - 1);
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    // count, mean, p50, p90, p99, p99.9 and max in milliseconds
+    public String summary() {
+        return String.format(Locale.ROOT, "count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p999=%.3f max=%.3f ms",
+            count.sum(), mean() / 1e6, percentile(0.5) / 1e6, percentile(0.9) / 1e6, percentile(0.99) / 1e6,
+            percentile(0.999) / 1e6, maxNanos.get() / 1e6);
+    }
+}
@@ -0,0 +1,217 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.util.*;                   // Collections and utilities
+
+// Manages user interface
+class MenuManager {
+    Scanner scanner;                      // Input handler
+    PayrollDataStore store;               // Published data versions
+    PayrollCalculator payrollCalculator;  // Calculator
+    PunchClassifier punchClassifier;      // Regular, overtime, night, late and undertime rules
+    AttendanceRange range;                // Reused query window
+
+    // Initialize with data
+    public MenuManager(PayrollDataStore store) {
+        scanner = new Scanner(System.in);  // Create scanner
+        this.store = store;                // Store data versions
+        payrollCalculator = new PayrollCalculator();  // Create calculator
+        punchClassifier = new PunchClassifier();      // Create classifier
+        range = new AttendanceRange();                // Create query window
+    }
+
+    // Display main menu
+    public void showMenu() {
+        int choice;
+        do {
+            // Print menu options
+            System.out.println("\nWelcome to MotorPH Menu:");
+            System.out.println("1. Display Employee Information");
+            System.out.println("2. Compute Hours Worked");
+            System.out.println("3. Compute Gross Salary");
+            System.out.println("4. Compute Net Salary");
+            System.out.println("5. Refresh Data");
+            System.out.println("6. Exit");
+            System.out.print("Enter your choice: ");
+            
+            choice = scanner.nextInt();  // Get user choice
+            scanner.nextLine();          // Clear input buffer
+            processChoice(choice);       // Handle selection
+        } while (choice != 6);           // Loop until exit
+    }
+
+    // Route menu selection
+    private void processChoice(int choice) {
+        switch (choice) {
+            case 1 -> displayEmployeeInfo();  // Show employee details
+            case 2 -> computeHoursWorked();   // Calculate hours
+            case 3 -> computeGrossSalary();   // Calculate gross pay
+            case 4 -> computeNetSalary();     // Calculate net pay
+            case 5 -> refreshData();          // Read changed files into a new version
+            case 6 -> System.out.println("Exiting...");  // Exit message
+            default -> System.out.println("Invalid choice.");  // Error
+        }
+    }
+
+    // Option 1: Display employee information
+    private void displayEmployeeInfo() {
+        System.out.print("Enter Employee Number: ");
+        String empNumber = scanner.nextLine().trim();  // Get input
+        Employee emp = store.current().employees.get(empNumber);  // Find employee
+        
+        if (emp != null) {  // If found
+            EmployeeDetails details = emp.getDetails();  // Read from the master file on demand
+            System.out.println("\nEmployee Details:");
+            System.out.println("Employee Number: " + emp.getEmployeeNumber());
+            System.out.println("Full Name: " + emp.getFullName());
+            System.out.println("Birthday: " + emp.getBirthday());
+            System.out.println("Address: " + details.address());
+            System.out.println("Phone Number: " + details.phoneNumber());
+            System.out.println("Status: " + details.status());
+            System.out.println("Position: " + details.position());
+            System.out.println("Immediate Supervisor: " + details.immediateSupervisor());
+            System.out.println("SSS #: " + details.sssNumber());
+            System.out.println("PhilHealth #: " + details.philhealthNumber());
+            System.out.println("TIN #: " + details.tinNumber());
+            System.out.println("Pag-IBIG #: " + details.pagibigNumber());
+            System.out.printf("Basic Salary: PHP %.2f%n", emp.getBasicSalary());
+            System.out.printf("Hourly Rate: PHP %.2f%n", emp.getHourlyRate());
+        } else {
+            System.out.println("Employee not found.");  // Not found message
+        }
+    }
+
+    // Option 2: Calculate hours worked
+    private void computeHoursWorked() {
+        System.out.print("Enter employee number: ");
+        String empNumber = scanner.nextLine();  // Get ID
+        
+        // Get date range
+        System.out.print("Enter start date (MM/dd/yyyy): ");
+        String startDateStr = scanner.nextLine();
+        System.out.print("Enter end date (MM/dd/yyyy): ");
+        String endDateStr = scanner.nextLine();
+
+        // Parse dates
+        int startDay = TimeCodec.parseDate(startDateStr.trim());
+        int endDay = TimeCodec.parseDate(endDateStr.trim());
+        if (startDay == TimeCodec.INVALID_DATE || endDay == TimeCodec.INVALID_DATE) {
+            System.out.println("Invalid date format.");  // Handle parse error
+            return;
+        }
+
+        // Report from one data version, built once per employee and range
+        PayrollData data = store.current();
+        System.out.print(store.cache.get(data, empNumber, startDay, endDay, PayrollQueryCache.QueryType.DAILY_HOURS,
+            () -> hoursReport(data.attendanceFor(empNumber, startDay, endDay), empNumber, startDay, endDay)));
+    }
+
+    // Daily hours and total for an employee within a date range
+    private String hoursReport(AttendanceRecord attendance, String empNumber, int startDay, int endDay) {
+        // Get filtered records
+        attendance.getAttendanceInRange(empNumber, startDay, endDay, range);
+
+        StringBuilder report = new StringBuilder();
+        Formatter out = new Formatter(report);
+        int invalidDays = 0;
+        // Process each record
+        for (int row = range.from; row < range.to; row++) {
+            PunchStatus status = attendance.statusAt(row);  // Validate punches
+            long minutes = attendance.minutesWorkedAt(row);  // Calculate minutes
+            if (status != PunchStatus.VALID) invalidDays++;
+            // Daily hours
+            out.format("Date: %s, Hours: %s%n", TimeCodec.formatDate(attendance.dayAt(row)),
+                status == PunchStatus.VALID ? TimeCodec.formatDuration(minutes) : "Invalid (" + status.getDescription() + ")");
+        }
+
+        // Total hours
+        long totalMinutes = attendance.minutesInRange(empNumber, startDay, endDay);
+        out.format("Total Hours: %s%n", TimeCodec.formatDuration(totalMinutes));
+        if (invalidDays > 0) out.format("Days not counted: %d%n", invalidDays);
+
+        // Breakdown by kind under the attendance policy; pay uses the total above
+        PunchTotals totals = new PunchTotals();
+        punchClassifier.classify(attendance, range.from, range.to, totals);
+        out.format("Attendance policy (lunch not worked, not used for pay): Regular: %s, Overtime: %s, Lunch: %s, "
+            + "Night: %s, Late: %s, Undertime: %s%n",
+            TimeCodec.formatDuration(totals.regularMinutes), TimeCodec.formatDuration(totals.overtimeMinutes),
+            TimeCodec.formatDuration(totals.lunchMinutes), TimeCodec.formatDuration(totals.nightMinutes),
+            TimeCodec.formatDuration(totals.lateMinutes), TimeCodec.formatDuration(totals.undertimeMinutes));
+        return report.toString();
+    }
+
+    // Option 3: Calculate gross salary
+    private void computeGrossSalary() {
+        System.out.print("Enter employee number: ");
+        String empNumber = scanner.nextLine();  // Get ID
+        PayrollData data = store.current();       // One data version for the whole option
+        Employee emp = data.employees.get(empNumber);  // Find employee
+        
+        if (emp == null) {  // Check existence
+            System.out.println("Employee not found.");
+            return;
+        }
+
+        // Get date range
+        System.out.print("Enter start date (MM/dd/yyyy): ");
+        String startDateStr = scanner.nextLine();
+        System.out.print("Enter end date (MM/dd/yyyy): ");
+        String endDateStr = scanner.nextLine();
+
+        // Parse dates
+        int startDay = TimeCodec.parseDate(startDateStr.trim());
+        int endDay = TimeCodec.parseDate(endDateStr.trim());
+        if (startDay == TimeCodec.INVALID_DATE || endDay == TimeCodec.INVALID_DATE) {
+            System.out.println("Invalid date format.");  // Handle error
+            return;
+        }
+
+        // Hours times hourly rate, cached per employee and range
+        PayrollEntry entry = store.cache.get(data, empNumber, startDay, endDay, PayrollQueryCache.QueryType.GROSS,
+            () -> payrollRun(data, empNumber, startDay, endDay).computeEntry(emp, startDay, endDay));
+        System.out.printf("Gross salary for %s: PHP %s%n", emp.getFullName(), Centavos.format(entry.grossPay));
+    }
+
+    // Option 4: Calculate net salary
+    private void computeNetSalary() {
+        System.out.print("Enter employee number: ");
+        String empNumber = scanner.nextLine();  // Get ID
+        PayrollData data = store.current();       // One data version for the whole option
+        Employee emp = data.employees.get(empNumber);  // Find employee
+        
+        if (emp == null) {  // Check existence
+            System.out.println("Employee not found.");
+            return;
+        }
+
+        // Calculate components, cached per employee
+        PayrollEntry entry = store.cache.get(data, empNumber, 0, -1, PayrollQueryCache.QueryType.NET,
+            () -> payrollRun(data, empNumber, 0, -1).computeEntry(emp, 0, -1));
+
+        // Display breakdown
+        System.out.println("\nNet Salary Calculation:");
+        System.out.printf("Basic Salary: PHP %.2f%n", emp.getBasicSalary());
+        System.out.printf("Total Deductions: PHP %s%n", Centavos.format(entry.totalDeductions));
+        System.out.printf("Taxable Income: PHP %s%n", Centavos.format(entry.taxableIncome));
+        System.out.printf("Withholding Tax: PHP %s%n", Centavos.format(entry.withholdingTax));
+        System.out.printf("Net Salary: PHP %s%n", Centavos.format(entry.netPay));
+    }
+
+    // Option 5: Publish a new data version with whatever changed since the last load
+    private void refreshData() {
+        try {
+            int added = store.reload();
+            System.out.println("Read " + added + " new attendance rows, now on data version "
+                + store.current().version + ".");
+            System.out.println("Result cache: " + store.cache.stats());
+        } catch (IOException e) {
+            System.out.println("Error refreshing data: " + e.getMessage());  // Handle file errors
+        }
+    }
+
+    // Payroll rules over one data version, with the attendance an employee's date range needs
+    private PayrollRun payrollRun(PayrollData data, String empNumber, int startDay, int endDay) {
+        return new PayrollRun(data.employees, data.attendanceFor(empNumber, startDay, endDay), payrollCalculator);
+    }
+}
@@ -0,0 +1,119 @@
+package revisedms2;
+
+// Import necessary libraries
+import javax.management.JMException;
+import javax.management.MBeanServer;        // Platform bean server
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory; // JVM thread statistics
+import java.util.*;                   // Collections and utilities
+import java.util.concurrent.ConcurrentHashMap; // Shared maps
+import java.util.concurrent.Executors; // Virtual thread executors
+import java.util.concurrent.ScheduledExecutorService; // Periodic tasks
+import java.util.concurrent.TimeUnit;  // Reload intervals
+import java.util.concurrent.atomic.LongAdder; // Low-contention counters
+import java.util.function.LongSupplier; // Metric gauges
+
+// Process-wide counters and latency histograms for loads, queries and payroll runs. Turn off with
+// -Dmotorph.metrics=false, which makes every hook a constant-false branch. Exposed over JMX as
+// motorph:type=Metrics, and printed to stderr every -Dmotorph.metricsDump seconds when set.
+class Metrics {
+    static final boolean ENABLED = !"false".equals(System.getProperty("motorph.metrics"));
+
+    // Rows read or skipped per file
+    static final LongAdder EMPLOYEE_ROWS_PARSED = new LongAdder();
+    static final LongAdder EMPLOYEE_ROWS_REJECTED = new LongAdder();
+    static final LongAdder ATTENDANCE_ROWS_PARSED = new LongAdder();
+    static final LongAdder ATTENDANCE_ROWS_REJECTED = new LongAdder();
+
+    // Batch output
+    static final LongAdder REGISTER_ROWS_WRITTEN = new LongAdder();
+    static final LongAdder ROLLUP_EMPLOYEES = new LongAdder();
+    static final LongAdder SPILL_RUNS = new LongAdder();
+
+    // Attendance months read from disk, and dropped from memory for space
+    static final LongAdder PARTITION_LOADS = new LongAdder();
+    static final LongAdder PARTITION_EVICTIONS = new LongAdder();
+
+    // Query errors
+    static final LongAdder QUERY_ERRORS = new LongAdder();
+
+    // Latencies
+    static final LatencyHistogram LOAD_EMPLOYEES = new LatencyHistogram("load.employees");
+    static final LatencyHistogram LOAD_ATTENDANCE = new LatencyHistogram("load.attendance");
+    static final LatencyHistogram LOAD_SNAPSHOT = new LatencyHistogram("load.snapshot");
+    static final LatencyHistogram INGEST_ATTENDANCE = new LatencyHistogram("ingest.attendance");
+    static final LatencyHistogram RELOAD = new LatencyHistogram("reload");
+    static final LatencyHistogram QUERY = new LatencyHistogram("query");
+    static final LatencyHistogram PAYROLL_REGISTER = new LatencyHistogram("payroll.register");
+    static final LatencyHistogram ROLLUP = new LatencyHistogram("rollup");
+    static final LatencyHistogram[] HISTOGRAMS = {LOAD_EMPLOYEES, LOAD_ATTENDANCE, LOAD_SNAPSHOT,
+        INGEST_ATTENDANCE, RELOAD, QUERY, PAYROLL_REGISTER, ROLLUP};
+
+    static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();  // Values owned elsewhere
+    static ScheduledExecutorService dumper;  // Periodic dump thread, null when not started
+
+    // Start time for a latency, or 0 when disabled
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    // Add to a counter
+    static void add(LongAdder counter, long amount) {
+        if (ENABLED && amount != 0) counter.add(amount);
+    }
+
+    // Publish a value read on demand, such as cache hits
+    static void gauge(String name, LongSupplier value) {
+        if (ENABLED) GAUGES.put(name, value);
+    }
+
+    // Every counter and gauge by name, in name order
+    static Map<String, Long> counters() {
+        Map<String, Long> counters = new TreeMap<>();
+        counters.put("employees.parsed", EMPLOYEE_ROWS_PARSED.sum());
+        counters.put("employees.rejected", EMPLOYEE_ROWS_REJECTED.sum());
+        counters.put("attendance.parsed", ATTENDANCE_ROWS_PARSED.sum());
+        counters.put("attendance.rejected", ATTENDANCE_ROWS_REJECTED.sum());
+        counters.put("register.rows", REGISTER_ROWS_WRITTEN.sum());
+        counters.put("rollup.employees", ROLLUP_EMPLOYEES.sum());
+        counters.put("payroll.spillRuns", SPILL_RUNS.sum());
+        counters.put("partitions.loads", PARTITION_LOADS.sum());
+        counters.put("partitions.evictions", PARTITION_EVICTIONS.sum());
+        counters.put("query.errors", QUERY_ERRORS.sum());
+        GAUGES.forEach((name, value) -> counters.put(name, value.getAsLong()));
+        return counters;
+    }
+
+    // Text dump of every counter and every histogram that has values
+    static String dump() {
+        StringBuilder out = new StringBuilder("metrics:");
+        counters().forEach((name, value) -> out.append(' ').append(name).append('=').append(value));
+        out.append(System.lineSeparator());
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            if (histogram.count.sum() == 0) continue;
+            out.append("  ").append(histogram.name).append(' ').append(histogram.summary()).append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    // Register the JMX bean and start the periodic dump if configured; no-op when disabled
+    static synchronized void install() {
+        if (!ENABLED) return;
+        try {
+            ObjectName name = new ObjectName("motorph:type=Metrics");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) server.registerMBean(new MetricsMBean(), name);
+        } catch (JMException e) {
+            System.err.println("Could not register metrics bean: " + e.getMessage());  // Metrics still collected
+        }
+        long seconds = Long.getLong("motorph.metricsDump", 0);
+        if (seconds > 0 && dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "metrics-dump");
+                thread.setDaemon(true);  // Never keeps the process alive
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.print(dump()), seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+}
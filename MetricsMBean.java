@@ -0,0 +1,78 @@
+package revisedms2;
+
+// Import necessary libraries
+import javax.management.Attribute;          // JMX attributes
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;       // Metrics bean
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ReflectionException;
+import java.util.*;                   // Collections and utilities
+
+// Read-only JMX view of Metrics: one Long attribute per counter, and for each histogram
+// <name>.count and <name>.p50/p90/p99/p999/max in microseconds
+class MetricsMBean implements DynamicMBean {
+    static final String[] PERCENTILES = {"p50", "p90", "p99", "p999"};
+    static final double[] FRACTIONS = {0.5, 0.9, 0.99, 0.999};
+
+    // Every attribute and its current value
+    Map<String, Long> attributes() {
+        Map<String, Long> attributes = Metrics.counters();
+        for (LatencyHistogram histogram : Metrics.HISTOGRAMS) {
+            attributes.put(histogram.name + ".count", histogram.count.sum());
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                attributes.put(histogram.name + "." + PERCENTILES[i] + "Micros", histogram.percentile(FRACTIONS[i]) / 1000);
+            }
+            attributes.put(histogram.name + ".maxMicros", histogram.maxNanos.get() / 1000);
+        }
+        return attributes;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Long value = attributes().get(attribute);
+        if (value == null) throw new AttributeNotFoundException(attribute);
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        Map<String, Long> attributes = attributes();
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            if (attributes.containsKey(name)) list.add(new Attribute(name, attributes.get(name)));
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();  // Nothing is writable
+    }
+
+    @Override
+    public Object invoke(String action, Object[] params, String[] signature) throws ReflectionException {
+        if (action.equals("dump")) return Metrics.dump();
+        throw new ReflectionException(new NoSuchMethodException(action));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> infos = new ArrayList<>();
+        for (String name : attributes().keySet()) {
+            infos.add(new MBeanAttributeInfo(name, "java.lang.Long", name, true, false, false));
+        }
+        MBeanOperationInfo dump = new MBeanOperationInfo("dump", "Text dump of all metrics",
+            new MBeanParameterInfo[0], "java.lang.String", MBeanOperationInfo.INFO);
+        return new MBeanInfo(getClass().getName(), "MotorPH load, query and payroll metrics",
+            infos.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[]{dump}, null);
+    }
+}
@@ -1,74 +1,34 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
- */
-package motorphemployeeinfo;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Scanner;
-/**
- *
- * @author jonad
- */
-public class Motorphemployeeinfo {
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.util.Map;                 // Employee lookup
+import java.util.Scanner;             // User input
 
-    /**
-     * @param args the command line arguments
-     */
+// Employee lookup program, now a front-end over the shared employee loader
+public class Motorphemployeeinfo {
+    // Look up one employee from a data directory, default src
     public static void main(String[] args) {
-        //import csv file
-        String csvFile = "C:\\Users\\jonad\\OneDrive\\Documents\\NetBeansProjects\\motorphemployeeinfo\\src\\motorph_employeedata.csv";
-        String line;
-        //csv delimiter
-        String csvSplitBy = ",";
-        //store employee data
-        HashMap<String, String[]> employeeMap = new HashMap<>();
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
-            //proceed to data and skip the header
-            br.readLine();
-            
-            //read csv file by line
-            while((line = br.readLine()) !=null) {
-            //split each line by delimiter
-            String[] row = line.split(csvSplitBy);
-            
-            //capture first 4 columns
-            if (row.length == 4) {
-                //employee#
-                String employeeNumber = row[0].trim();
-                //last name
-                String lastName = row[1].trim();
-                //first name
-                String firstName = row[2].trim();
-                //Birthday
-                String birthday = row[3].trim();
-                
-            //store data with hashmap
-            employeeMap.put(employeeNumber, new String[]{lastName, firstName, birthday});}}} 
-        
-        catch (IOException e) {}
-        
-        //input employee number
+        String directory = args.length > 0 ? args[0] : DataLoader.DATA_DIRECTORY;
+        Map<String, Employee> employees;
+        try {
+            employees = DataLoader.loadEmployees(DataLoader.dataFile(directory, DataLoader.EMPLOYEES_FILE));
+        } catch (IOException e) {
+            System.err.println("Error loading data: " + e.getMessage());  // Handle file errors
+            return;
+        }
+
+        // Input employee number
         Scanner scanner = new Scanner(System.in);
         System.out.print("Enter Employee Number: ");
-        String inputEmployeeNumber = scanner.nextLine().trim();
-        
-        //if else function to capture employee information
-        if (employeeMap.containsKey(inputEmployeeNumber)) 
-            {String[] employeeDetails = employeeMap.get(inputEmployeeNumber);
-            String lastName = employeeDetails[0];
-            String firstName = employeeDetails[1];
-            String birthday = employeeDetails[2];
-            
+        Employee emp = employees.get(scanner.nextLine().trim());
+
+        if (emp != null) {  // If found
             System.out.println("Employee Details: ");
-            System.out.println("Full Name: "+ firstName + " "+ lastName);
-            System.out.println("Birthday: " + birthday);} 
-        
-        else {System.out.println("Employee not found.");}
-            }
-                
+            System.out.println("Full Name: " + emp.getFullName());
+            System.out.println("Birthday: " + emp.getBirthday());
+        } else {
+            System.out.println("Employee not found.");  // Not found message
+        }
     }
-    
+}
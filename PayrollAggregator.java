@@ -0,0 +1,37 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+import java.util.concurrent.ForkJoinPool; // Parallel task pool
+
+// Whole-company pay-period totals from AttendanceRecord and PayrollCalculator
+class PayrollAggregator {
+    Employee[] roster;               // Employees in employee number order
+    AttendanceRecord attendance;     // Attendance data
+    PayrollCalculator calculator;    // Deduction tables
+
+    // Initialize with data
+    public PayrollAggregator(Map<String, Employee> employees, AttendanceRecord attendance,
+                             PayrollCalculator calculator) {
+        roster = employees.values().toArray(new Employee[0]);
+        Arrays.sort(roster, Comparator.comparing(Employee::getEmployeeNumber));  // Same sums on every run
+        this.attendance = attendance;
+        this.calculator = calculator;
+    }
+
+    // Roll up a period on the fork-join pool
+    public PeriodRollup aggregate(int startDay, int endDay) {
+        attendance.sort();  // Sort once before the parallel readers start
+        long started = Metrics.start();
+        PeriodRollup rollup = ForkJoinPool.commonPool().invoke(
+            new PeriodAggregateTask(roster, attendance, calculator, 0, roster.length, startDay, endDay));
+        Metrics.add(Metrics.ROLLUP_EMPLOYEES, roster.length);
+        Metrics.ROLLUP.recordSince(started);
+        return rollup;
+    }
+
+    // Roll up a period on this thread, for comparison
+    public PeriodRollup aggregateSequential(int startDay, int endDay) {
+        return new PeriodAggregateTask(roster, attendance, calculator, 0, roster.length, startDay, endDay).sumSlice();
+    }
+}
@@ -0,0 +1,54 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+
+// Handles payroll calculations
+class PayrollCalculator {
+    List<Deduction> deductions;  // List of deductions
+    List<BracketTable> tables;   // Tables behind the deductions
+    BracketTable taxTable;       // Withholding tax table
+    
+    // Initialize with standard deductions
+    public PayrollCalculator() {
+        this(ContributionTables.standard());
+    }
+
+    // Initialize with given tables
+    public PayrollCalculator(ContributionTables contributionTables) {
+        deductions = new ArrayList<>();  // Create list
+        for (BracketTable table : contributionTables.deductions) {
+            deductions.add(new BracketDeduction(table));  // One deduction per table
+        }
+        tables = contributionTables.deductions;
+        taxTable = contributionTables.tax;
+    }
+
+    // Calculate total deductions, in centavos
+    public long calculateTotalDeductions(long basicSalary) {
+        long total = 0;
+        for (int i = 0; i < tables.size(); i++) total += tables.get(i).calculate(basicSalary);
+        return total;
+    }
+
+    // Calculate total deductions for many salaries at once, one table at a time
+    public void calculateTotalDeductions(long[] salaries, long[] out) {
+        Arrays.fill(out, 0, salaries.length, 0);
+        for (int i = 0; i < tables.size(); i++) tables.get(i).addTo(salaries, out);
+    }
+
+    // Pay for minutes worked at an hourly rate, to the nearest centavo, halves up
+    public long grossPay(long minutes, long hourlyRate) {
+        return Centavos.divide(minutes * hourlyRate, 60, Centavos.Rounding.HALF_UP);
+    }
+
+    // Calculate withholding tax with this calculator's table
+    public long withholdingTax(long taxableIncome) {
+        return taxTable.calculate(taxableIncome);
+    }
+
+    // Calculate withholding tax with the standard table
+    public static long calculateWithholdingTax(long taxableIncome) {
+        return ContributionTables.standard().tax.calculate(taxableIncome);
+    }
+}
@@ -0,0 +1,61 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+
+// Employees and attendance loaded together
+class PayrollData {
+    Map<String, Employee> employees;  // Employee data
+    AttendanceRecord attendance;      // Attendance data, empty when read from partitions
+    AttendancePartitions partitions;  // Monthly attendance files, null when the whole history is loaded
+    AttendanceWatermark watermark;    // End of the CSV rows in attendance, null if unknown
+    long version;                     // Number of reloads before this data was published
+
+    // Pair loaded data
+    public PayrollData(Map<String, Employee> employees, AttendanceRecord attendance) {
+        this(employees, attendance, 0);
+    }
+
+    // Pair loaded data as a given version
+    public PayrollData(Map<String, Employee> employees, AttendanceRecord attendance, long version) {
+        this.employees = employees;
+        this.attendance = attendance;
+        this.version = version;
+    }
+
+    // Pair loaded employees with partitioned attendance as a given version
+    public PayrollData(Map<String, Employee> employees, AttendancePartitions partitions, long version) {
+        this(employees, new AttendanceRecord(), version);
+        this.partitions = partitions;
+    }
+
+    // Attendance covering a date range, both ends inclusive
+    public AttendanceRecord attendanceFor(int startDay, int endDay) {
+        return partitions == null ? attendance : partitions.covering(null, startDay, endDay);
+    }
+
+    // Attendance covering an employee's rows within a date range, both ends inclusive
+    public AttendanceRecord attendanceFor(CharSequence empNumber, int startDay, int endDay) {
+        return partitions == null ? attendance : partitions.covering(empNumber, startDay, endDay);
+    }
+
+    // Whether an employee's attendance within a date range differs from an earlier version
+    public boolean attendanceChangedSince(PayrollData previous, CharSequence empNumber, int startDay, int endDay) {
+        if (partitions != null) {
+            return partitions != previous.partitions && partitions.changedInRange(empNumber, startDay, endDay);
+        }
+        return attendance != previous.attendance && attendance.changedInRange(empNumber, startDay, endDay);
+    }
+
+    // Read-only copy that any number of threads can query without locking
+    public PayrollData freeze() {
+        attendance.sort();  // Queries never sort a frozen record
+        attendance.frozen = true;
+        Map<String, Employee> frozenEmployees = employees instanceof EmployeeTable.ReadOnlyMap
+            ? employees : Collections.unmodifiableMap(new HashMap<>(employees));  // Table views are already read-only
+        PayrollData frozen = new PayrollData(frozenEmployees, attendance, version);
+        frozen.partitions = partitions;
+        frozen.watermark = watermark;
+        return frozen;
+    }
+}
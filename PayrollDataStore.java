@@ -0,0 +1,106 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.nio.file.Paths;           // File path factory
+import java.util.*;                   // Collections and utilities
+import java.util.concurrent.Executors; // Virtual thread executors
+import java.util.concurrent.ScheduledExecutorService; // Periodic tasks
+import java.util.concurrent.TimeUnit;  // Reload intervals
+import java.util.concurrent.atomic.AtomicReference; // Published data versions
+
+// Publishes frozen PayrollData versions behind an atomic reference. A reload copies the current
+// version, reads what changed into the copy and swaps it in; readers keep the version they took.
+class PayrollDataStore {
+    AtomicReference<PayrollData> current;  // Latest published version
+    String employeesPath;                  // Employee file
+    String attendancePath;                 // Attendance file
+    long employeesStamp = -1;              // Employee file stamp at the last reload, -1 before one
+    long attendanceStamp = -1;             // Attendance file stamp at the last reload, -1 before one
+    ScheduledExecutorService reloader;     // Background reload thread, null when not started
+    PayrollQueryCache cache;               // Results computed from the current version
+
+    // Publish loaded data as the first version
+    public PayrollDataStore(PayrollData initial, String employeesPath, String attendancePath) {
+        current = new AtomicReference<>(initial.freeze());
+        this.employeesPath = employeesPath;
+        this.attendancePath = attendancePath;
+        cache = new PayrollQueryCache(Integer.getInteger("motorph.cacheSize", 10000), initial.version);
+        Metrics.gauge("data.version", () -> current.get().version);
+        Metrics.gauge("cache.entries", () -> { synchronized (cache) { return cache.entries.size(); } });
+        Metrics.gauge("cache.hits", () -> { synchronized (cache) { return cache.hits; } });
+        Metrics.gauge("cache.misses", () -> { synchronized (cache) { return cache.misses; } });
+        Metrics.gauge("cache.evictions", () -> { synchronized (cache) { return cache.evictions; } });
+        Metrics.gauge("cache.invalidations", () -> { synchronized (cache) { return cache.invalidations; } });
+    }
+
+    // Version to answer one query from; take it once and use it throughout
+    public PayrollData current() {
+        return current.get();
+    }
+
+    // Build and publish the next version if either file changed. Returns the change in attendance rows.
+    public synchronized int reload() throws IOException {
+        PayrollData published = current.get();
+        long employeesNow = stamp(employeesPath), attendanceNow = stamp(attendancePath);
+        if (employeesNow == employeesStamp && attendanceNow == attendanceStamp) return 0;  // Nothing to read
+        long started = Metrics.start();
+
+        Map<String, Employee> employees = employeesNow == employeesStamp
+            ? published.employees : DataLoader.loadEmployees(employeesPath);
+        AttendanceRecord attendance = published.attendance;
+        AttendancePartitions partitions = published.partitions;
+        AttendanceWatermark watermark = published.watermark;
+        int added = 0;
+        if (attendanceNow != attendanceStamp && partitions != null) {
+            partitions = partitions.update();  // Rewrites only the months that changed
+            added = partitions == published.partitions ? 0 : partitions.rowsAdded;
+        } else if (attendanceNow != attendanceStamp) {
+            attendance = attendance.copy();  // Readers keep the published record
+            int before = attendance.size();
+            watermark = DataLoader.ingestAppendedAttendance(attendance, attendancePath, watermark);  // From our own position
+            added = attendance.size() - before;
+        }
+        PayrollData next = partitions != null ? new PayrollData(employees, partitions, published.version + 1)
+            : new PayrollData(employees, attendance, published.version + 1);
+        next.watermark = watermark;
+        next = next.freeze();
+        cache.advance(published, next);  // Drop only results the changes touch
+        current.set(next);
+        employeesStamp = employeesNow;
+        attendanceStamp = attendanceNow;
+        Metrics.RELOAD.recordSince(started);
+        return added;
+    }
+
+    // Reload every given number of seconds on a daemon thread
+    public synchronized void startBackgroundReload(long seconds) {
+        if (reloader != null) return;  // Already running
+        reloader = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "payroll-reload");
+            thread.setDaemon(true);  // Never keeps the process alive
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error reloading data: " + e.getMessage());  // Keep serving the old version
+            }
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    // Stop background reloads
+    public synchronized void stopBackgroundReload() {
+        if (reloader != null) reloader.shutdownNow();
+        reloader = null;
+    }
+
+    // Size and modification time folded together, to notice a changed file cheaply
+    private static long stamp(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        return Files.getLastModifiedTime(path).toMillis() * 31 + Files.size(path);
+    }
+}
@@ -0,0 +1,18 @@
+package revisedms2;
+
+// Payroll figures for one employee over a pay period
+class PayrollEntry {
+    Employee employee;         // Employee paid
+    long minutesWorked;        // Minutes worked in the period
+    long grossPay;             // Hours worked times hourly rate, centavos
+    long[] deductions;         // One amount per PayrollCalculator deduction, centavos
+    long totalDeductions;      // Sum of deductions, centavos
+    long taxableIncome;        // Basic salary less deductions, centavos
+    long withholdingTax;       // Tax on taxable income, centavos
+    long netPay;               // Taxable income less tax, centavos
+
+    // Hours worked in the period
+    public double getHoursWorked() {
+        return minutesWorked / 60.0;
+    }
+}
@@ -0,0 +1,94 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+import java.util.function.Supplier;   // Deferred cache values
+
+// Bounded LRU cache of per-employee query results. Results are only stored and served for the
+// store's current version; a reload drops the entries its new rows or employee changes touch.
+class PayrollQueryCache {
+    // What a cached result answers, and the type stored for it
+    enum QueryType {
+        HOURS,        // Long minutes worked in the range
+        DAILY_HOURS,  // String report of each day in the range
+        GROSS,        // PayrollEntry for the range
+        NET           // PayrollEntry from basic salary; the range is not used
+    }
+
+    // Cache key
+    record Key(String employeeNumber, int startDay, int endDay, QueryType type) { }
+
+    LinkedHashMap<Key, Object> entries;  // Access-ordered, eldest first
+    int capacity;                        // Most entries kept
+    long version;                        // Data version the entries were computed from
+    long hits;                           // Lookups answered from the cache
+    long misses;                         // Lookups that had to compute
+    long evictions;                      // Entries dropped for space
+    long invalidations;                  // Entries dropped because their data changed
+
+    // Create an empty cache for a data version
+    public PayrollQueryCache(int capacity, long version) {
+        this.capacity = capacity;
+        this.version = version;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                if (size() <= PayrollQueryCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    // Cached result for a query against one data version, computing it outside the lock on a miss
+    @SuppressWarnings("unchecked")
+    public <V> V get(PayrollData data, String employeeNumber, int startDay, int endDay,
+                     QueryType type, Supplier<V> compute) {
+        Key key = new Key(employeeNumber, startDay, endDay, type);
+        synchronized (this) {
+            if (data.version == version) {
+                Object cached = entries.get(key);
+                if (cached != null) {
+                    hits++;
+                    return (V) cached;
+                }
+            }
+            misses++;
+        }
+        V value = compute.get();
+        synchronized (this) {
+            if (data.version == version) entries.put(key, value);  // Never store results from an old version
+        }
+        return value;
+    }
+
+    // Move to the next data version, dropping results that depend on what changed
+    public synchronized void advance(PayrollData previous, PayrollData next) {
+        boolean employeesChanged = next.employees != previous.employees;
+        for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+            Key key = keys.next();
+            String id = key.employeeNumber();
+            boolean stale = employeesChanged && !sameEmployee(previous.employees.get(id), next.employees.get(id))
+                || key.type() != QueryType.NET && next.attendanceChangedSince(previous, id, key.startDay(), key.endDay());
+            if (stale) {
+                keys.remove();
+                invalidations++;
+            }
+        }
+        version = next.version;
+    }
+
+    // Counters as one line
+    public synchronized String stats() {
+        return String.format("entries %d/%d, hits %d, misses %d, evictions %d, invalidations %d",
+            entries.size(), capacity, hits, misses, evictions, invalidations);
+    }
+
+    // Whether two loads of an employee give the same results
+    private static boolean sameEmployee(Employee a, Employee b) {
+        if (a == null || b == null) return a == b;
+        return a.getEmployeeNumber().equals(b.getEmployeeNumber()) && a.getFullName().equals(b.getFullName())
+            && a.getBirthday().equals(b.getBirthday()) && a.getBasicSalary() == b.getBasicSalary()
+            && a.getHourlyRate() == b.getHourlyRate();
+    }
+}
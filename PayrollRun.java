@@ -0,0 +1,97 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.util.*;                   // Collections and utilities
+import java.util.stream.IntStream;    // Index streams
+
+// Computes payroll for every employee over a pay period without the menu
+class PayrollRun {
+    static final int BATCH_SIZE = 4096;   // Entries computed in parallel before being written
+
+    Map<String, Employee> employees;      // Employee data
+    AttendanceRecord attendance;          // Attendance data
+    PayrollCalculator payrollCalculator;  // Calculator
+
+    // Initialize with data
+    public PayrollRun(Map<String, Employee> employees, AttendanceRecord attendance) {
+        this(employees, attendance, new PayrollCalculator());
+    }
+
+    // Initialize with data and a calculator shared with other runs
+    public PayrollRun(Map<String, Employee> employees, AttendanceRecord attendance,
+                      PayrollCalculator payrollCalculator) {
+        this.employees = employees;
+        this.attendance = attendance;
+        this.payrollCalculator = payrollCalculator;
+    }
+
+    // Compute entries for all employees, in employee number order
+    public List<PayrollEntry> run(int startDay, int endDay) {
+        attendance.sort();  // Sort once before the parallel readers start
+        Employee[] roster = employees.values().toArray(new Employee[0]);
+        Arrays.sort(roster, Comparator.comparing(Employee::getEmployeeNumber));
+        return Arrays.stream(roster)
+            .parallel()                                        // Spread employees across cores
+            .map(emp -> computeEntry(emp, startDay, endDay))
+            .toList();
+    }
+
+    // Compute one employee's entry, the same way the menu options do
+    PayrollEntry computeEntry(Employee emp, int startDay, int endDay) {
+        return computeEntry(emp, attendance.minutesInRange(emp.getEmployeeNumber(), startDay, endDay), payrollCalculator);
+    }
+
+    // Compute one employee's entry from minutes already summed for the period
+    static PayrollEntry computeEntry(Employee emp, long minutesWorked, PayrollCalculator payrollCalculator) {
+        PayrollEntry entry = new PayrollEntry();
+        entry.employee = emp;
+
+        // Hours and gross pay from attendance
+        entry.minutesWorked = minutesWorked;
+        entry.grossPay = payrollCalculator.grossPay(entry.minutesWorked, emp.getHourlyRateCentavos());
+
+        // Deductions and tax from basic salary
+        long basicSalary = emp.getBasicSalaryCentavos();
+        List<Deduction> deductions = payrollCalculator.deductions;
+        entry.deductions = new long[deductions.size()];
+        for (int i = 0; i < entry.deductions.length; i++) {
+            entry.deductions[i] = deductions.get(i).calculate(basicSalary);
+            entry.totalDeductions += entry.deductions[i];
+        }
+        entry.taxableIncome = basicSalary - entry.totalDeductions;
+        entry.withholdingTax = payrollCalculator.withholdingTax(entry.taxableIncome);
+        entry.netPay = entry.taxableIncome - entry.withholdingTax;
+        return entry;
+    }
+
+    // Write computed entries as a CSV payroll register
+    public void writeRegister(List<PayrollEntry> entries, String filePath) throws IOException {
+        try (RegisterWriter out = new RegisterWriter(filePath, RegisterWriter.Format.CSV,
+                payrollCalculator.deductions, 0, -1)) {
+            for (PayrollEntry entry : entries) out.write(entry);
+        }
+    }
+
+    // Compute and write every employee's entry in employee number order, BATCH_SIZE at a time
+    // across cores, so memory does not grow with the number of employees. Returns the number written.
+    public int writeRegister(int startDay, int endDay, String filePath, RegisterWriter.Format format) throws IOException {
+        attendance.sort();  // Sort once before the parallel readers start
+        Employee[] roster = employees.values().toArray(new Employee[0]);
+        Arrays.sort(roster, Comparator.comparing(Employee::getEmployeeNumber));
+        long started = Metrics.start();
+        PayrollEntry[] batch = new PayrollEntry[Math.min(BATCH_SIZE, roster.length)];
+        try (RegisterWriter out = new RegisterWriter(filePath, format, payrollCalculator.deductions, startDay, endDay)) {
+            for (int from = 0; from < roster.length; from += batch.length) {
+                int first = from, count = Math.min(batch.length, roster.length - from);
+                IntStream.range(0, count)
+                    .parallel()                                // Spread the batch across cores
+                    .forEach(i -> batch[i] = computeEntry(roster[first + i], startDay, endDay));
+                for (int i = 0; i < count; i++) out.write(batch[i]);  // Written in roster order
+            }
+        }
+        Metrics.add(Metrics.REGISTER_ROWS_WRITTEN, roster.length);
+        Metrics.PAYROLL_REGISTER.recordSince(started);
+        return roster.length;
+    }
+}
@@ -0,0 +1,59 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.concurrent.RecursiveTask; // Fork-join tasks
+
+// Sums a slice of the roster into its own PeriodRollup, splitting large slices in two.
+// Each leaf writes only its own rollup; partial rollups are merged as the tasks join.
+class PeriodAggregateTask extends RecursiveTask<PeriodRollup> {
+    static final int LEAF_EMPLOYEES = 512;  // Slices at most this size are summed directly
+    private static final long serialVersionUID = 1L;  // Tasks are never serialized
+
+    transient Employee[] roster;               // Shared, read-only
+    transient AttendanceRecord attendance;     // Shared, sorted before the tasks start
+    transient PayrollCalculator calculator;    // Shared, read-only
+    int from;                        // First roster index of the slice
+    int to;                          // One past the last roster index
+    int startDay;                    // First day of the period
+    int endDay;                      // Last day of the period
+
+    // Describe a slice
+    public PeriodAggregateTask(Employee[] roster, AttendanceRecord attendance, PayrollCalculator calculator,
+                               int from, int to, int startDay, int endDay) {
+        this.roster = roster;
+        this.attendance = attendance;
+        this.calculator = calculator;
+        this.from = from;
+        this.to = to;
+        this.startDay = startDay;
+        this.endDay = endDay;
+    }
+
+    @Override
+    protected PeriodRollup compute() {
+        if (to - from <= LEAF_EMPLOYEES) return sumSlice();
+        int middle = (from + to) >>> 1;
+        PeriodAggregateTask left = new PeriodAggregateTask(roster, attendance, calculator, from, middle, startDay, endDay);
+        PeriodAggregateTask right = new PeriodAggregateTask(roster, attendance, calculator, middle, to, startDay, endDay);
+        left.fork();
+        PeriodRollup rightRollup = right.compute();  // Work on one half here
+        return left.join().merge(rightRollup);
+    }
+
+    // Sum the slice directly, deductions a table at a time
+    PeriodRollup sumSlice() {
+        int count = to - from;
+        long[] salaries = new long[count];
+        long[] deductions = new long[count];
+        for (int i = 0; i < count; i++) salaries[i] = roster[from + i].getBasicSalaryCentavos();
+        calculator.calculateTotalDeductions(salaries, deductions);
+
+        PeriodRollup rollup = new PeriodRollup();
+        for (int i = 0; i < count; i++) {
+            Employee emp = roster[from + i];
+            long minutes = attendance.minutesInRange(emp.getEmployeeNumber(), startDay, endDay);
+            rollup.add(emp, minutes, calculator.grossPay(minutes, emp.getHourlyRateCentavos()), deductions[i]);
+        }
+        return rollup;
+    }
+}
@@ -0,0 +1,43 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.PrintStream;           // Console output
+import java.util.*;                   // Collections and utilities
+
+// Company totals for one pay period, rolled up by position and by immediate supervisor
+class PeriodRollup {
+    PeriodTotals company = new PeriodTotals();                 // Every employee
+    Map<String, PeriodTotals> byPosition = new HashMap<>();    // Position -> totals
+    Map<String, PeriodTotals> bySupervisor = new HashMap<>();  // Supervisor -> totals of direct reports
+
+    // Add one employee to the company and both rollups
+    public void add(Employee emp, long minutes, long gross, long deduction) {
+        company.add(minutes, gross, deduction);
+        byPosition.computeIfAbsent(emp.getPosition(), k -> new PeriodTotals()).add(minutes, gross, deduction);
+        bySupervisor.computeIfAbsent(emp.getImmediateSupervisor(), k -> new PeriodTotals()).add(minutes, gross, deduction);
+    }
+
+    // Fold another partial rollup into this one
+    public PeriodRollup merge(PeriodRollup other) {
+        company.merge(other.company);
+        other.byPosition.forEach((key, totals) -> byPosition.computeIfAbsent(key, k -> new PeriodTotals()).merge(totals));
+        other.bySupervisor.forEach((key, totals) -> bySupervisor.computeIfAbsent(key, k -> new PeriodTotals()).merge(totals));
+        return this;
+    }
+
+    // Print the company line and both rollups, groups in name order
+    public void print(PrintStream out) {
+        out.printf("%-40s %9s %12s %16s %16s%n", "Group", "Employees", "Hours", "Gross Pay", "Deductions");
+        printLine(out, "Company", company);
+        out.println("By position:");
+        new TreeMap<>(byPosition).forEach((key, totals) -> printLine(out, "  " + key, totals));
+        out.println("By immediate supervisor:");
+        new TreeMap<>(bySupervisor).forEach((key, totals) -> printLine(out, "  " + key, totals));
+    }
+
+    // One table row
+    private static void printLine(PrintStream out, String name, PeriodTotals totals) {
+        out.printf("%-40s %9d %12.2f %16s %16s%n", name, totals.employees, totals.getHoursWorked(),
+            Centavos.format(totals.grossPay), Centavos.format(totals.deductions));
+    }
+}
@@ -0,0 +1,30 @@
+package revisedms2;
+
+// Hours, gross pay and deductions summed over a group of employees for one pay period
+class PeriodTotals {
+    int employees;         // Employees in the group
+    long minutesWorked;    // Minutes worked in the period
+    long grossPay;         // Hours worked times hourly rate, centavos
+    long deductions;       // Deductions from basic salary, centavos
+
+    // Add one employee
+    public void add(long minutes, long gross, long deduction) {
+        employees++;
+        minutesWorked += minutes;
+        grossPay += gross;
+        deductions += deduction;
+    }
+
+    // Add another group's totals
+    public void merge(PeriodTotals other) {
+        employees += other.employees;
+        minutesWorked += other.minutesWorked;
+        grossPay += other.grossPay;
+        deductions += other.deductions;
+    }
+
+    // Hours worked in the period
+    public double getHoursWorked() {
+        return minutesWorked / 60.0;
+    }
+}
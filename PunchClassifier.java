@@ -0,0 +1,113 @@
+package revisedms2;
+
+// Classifies each day's punches into regular, overtime, night, late and undertime minutes in a
+// single pass over the attendance columns. A log-out earlier than the log-in is taken as the next
+// day, so night shifts count instead of being invalid; the lunch break is that of the log-in day.
+class PunchClassifier {
+    static final int BLOCK_ROWS = 1 << 20;  // Rows summed in ints before adding to the long totals
+
+    int shiftStart = 8 * 60;       // Scheduled start
+    int shiftEnd = 17 * 60;        // Scheduled end
+    int graceMinutes = 10;         // Log-ins up to this long after start are not late
+    int lunchStart = 12 * 60;      // Unpaid lunch break
+    int lunchEnd = 13 * 60;
+    int regularMinutes = 8 * 60;   // Worked minutes per day before overtime
+    int nightStart = 22 * 60;      // Night differential window, ending the next morning
+    int nightEnd = 6 * 60;
+
+    // Classify an employee's days within a date range, both ends inclusive
+    public PunchTotals classify(AttendanceRecord attendance, String empNumber, int startDay, int endDay) {
+        AttendanceRange range = attendance.getAttendanceInRange(empNumber, startDay, endDay, new AttendanceRange());
+        PunchTotals totals = new PunchTotals();
+        classify(attendance, range.from, range.to, totals);
+        return totals;
+    }
+
+    // Add rows [from, to) of a sorted record to the totals
+    public void classify(AttendanceRecord attendance, int from, int to, PunchTotals totals) {
+        short[] logIns = attendance.logInColumn;
+        short[] logOuts = attendance.logOutColumn;
+        int[] pairOffsets = attendance.intervalOffsets;
+        int[] starts = new int[0], ends = new int[0];  // Merged pairs of a day punched more than once
+        int nightWrap = nightEnd + TimeCodec.MINUTES_PER_DAY;
+        for (int blockStart = from; blockStart < to; blockStart += BLOCK_ROWS) {
+            int blockEnd = (int) Math.min((long) blockStart + BLOCK_ROWS, to);
+            int regular = 0, overtime = 0, lunch = 0, night = 0, late = 0, undertime = 0, invalidDays = 0;
+
+            // Unusable rows and days punched more than once are rare and predictable, so they
+            // branch; late and early punches follow no pattern, so they are picked out by sign bits
+            for (int row = blockStart; row < blockEnd; row++) {
+                if (pairOffsets[row] != pairOffsets[row + 1]) {  // Punched more than once
+                    if (starts.length < attendance.pairCountAt(row)) {
+                        starts = new int[attendance.pairCountAt(row)];
+                        ends = new int[starts.length];
+                    }
+                    int count = attendance.mergedIntervalsAt(row, starts, ends);
+                    if (count < 0) {
+                        invalidDays++;
+                        continue;
+                    }
+                    int worked = 0;
+                    for (int i = 0; i < count; i++) {
+                        int lunchPart = overlap(starts[i], ends[i], lunchStart, lunchEnd);
+                        lunch += lunchPart;
+                        worked += ends[i] - starts[i] - lunchPart;
+                        night += overlap(starts[i], ends[i], 0, nightEnd) + overlap(starts[i], ends[i], nightStart, nightWrap);
+                    }
+                    int regularPart = Math.min(worked, regularMinutes);
+                    regular += regularPart;
+                    overtime += worked - regularPart;
+                    late += lateMinutes(starts[0]);            // First log-in
+                    undertime += undertimeMinutes(ends[count - 1]);  // Last log-out
+                    continue;
+                }
+
+                int logIn = logIns[row], logOut = logOuts[row];
+                int crossed = (logOut - logIn) >> 31;                  // -1 when past midnight
+                logOut += crossed & TimeCodec.MINUTES_PER_DAY;
+                int tooLong = crossed & (PunchStatus.MAX_SHIFT_MINUTES - (logOut - logIn)) >> 31;
+                if (((logIn | logOuts[row]) >> 31 | tooLong) != 0) {  // Missing punch or too long
+                    invalidDays++;
+                    continue;
+                }
+
+                int lunchPart = overlap(logIn, logOut, lunchStart, lunchEnd);
+                lunch += lunchPart;
+                int worked = logOut - logIn - lunchPart;
+                int regularPart = Math.min(worked, regularMinutes);
+                regular += regularPart;
+                overtime += worked - regularPart;
+                night += overlap(logIn, logOut, 0, nightEnd)  // Early morning of the log-in day
+                    + overlap(logIn, logOut, nightStart, nightWrap);
+                late += lateMinutes(logIn);
+                undertime += undertimeMinutes(logOut);
+            }
+
+            totals.regularMinutes += regular;
+            totals.overtimeMinutes += overtime;
+            totals.lunchMinutes += lunch;
+            totals.nightMinutes += night;
+            totals.lateMinutes += late;
+            totals.undertimeMinutes += undertime;
+            totals.days += blockEnd - blockStart - invalidDays;
+            totals.invalidDays += invalidDays;
+        }
+    }
+
+    // Minutes late for a log-in past grace and within the shift, else 0
+    private int lateMinutes(int logIn) {
+        int lateBy = logIn - shiftStart;
+        return ((graceMinutes - lateBy) & (logIn - shiftEnd)) >> 31 & lateBy;
+    }
+
+    // Minutes short for a log-out before the end of the shift, else 0
+    private int undertimeMinutes(int logOut) {
+        int earlyBy = shiftEnd - logOut;
+        return -earlyBy >> 31 & earlyBy;
+    }
+
+    // Minutes shared by [start, end) and [windowStart, windowEnd)
+    private static int overlap(int start, int end, int windowStart, int windowEnd) {
+        return Math.max(0, Math.min(end, windowEnd) - Math.max(start, windowStart));
+    }
+}
@@ -0,0 +1,36 @@
+package revisedms2;
+
+// Outcome of validating one day's punches
+enum PunchStatus {
+    VALID("valid"),
+    MISSING_LOG_IN("missing log-in"),
+    MISSING_LOG_OUT("missing log-out"),
+    MALFORMED_LOG_IN("unreadable log-in"),
+    MALFORMED_LOG_OUT("unreadable log-out"),
+    LOG_OUT_BEFORE_LOG_IN("log-out before log-in");
+
+    static final int MAX_SHIFT_MINUTES = 16 * 60;  // Longest shift accepted as crossing midnight
+
+    String description;  // Text shown to users
+
+    PunchStatus(String description) {
+        this.description = description;
+    }
+
+    // Getter for description
+    public String getDescription() {
+        return description;
+    }
+
+    // Classify stored punches
+    public static PunchStatus of(short logIn, short logOut) {
+        if (logIn == AttendanceRecord.MISSING_PUNCH) return MISSING_LOG_IN;
+        if (logIn == AttendanceRecord.MALFORMED_PUNCH) return MALFORMED_LOG_IN;
+        if (logOut == AttendanceRecord.MISSING_PUNCH) return MISSING_LOG_OUT;
+        if (logOut == AttendanceRecord.MALFORMED_PUNCH) return MALFORMED_LOG_OUT;
+        if (logOut < logIn && logOut + TimeCodec.MINUTES_PER_DAY - logIn > MAX_SHIFT_MINUTES) {
+            return LOG_OUT_BEFORE_LOG_IN;  // Too long to be a shift past midnight
+        }
+        return VALID;
+    }
+}
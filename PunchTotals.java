@@ -0,0 +1,21 @@
+package revisedms2;
+
+// Minutes of each kind over a set of punches, under the attendance policy: the lunch break is
+// not worked time. Pay counts every punched minute (AttendanceRecord.minutesWorkedAt), so these
+// are for attendance reports only; regular + overtime + lunch equals the punched minutes of the
+// days counted here.
+class PunchTotals {
+    long regularMinutes;    // Worked minutes up to the regular day, lunch excluded
+    long overtimeMinutes;   // Worked minutes past the regular day
+    long lunchMinutes;      // Punched minutes inside the lunch break, left out of the two above
+    long nightMinutes;      // Worked minutes inside the night window, also counted above
+    long lateMinutes;       // Minutes after shift start, for log-ins past the grace period
+    long undertimeMinutes;  // Minutes before shift end, for early log-outs
+    int days;               // Days classified
+    int invalidDays;        // Days skipped for missing or unreadable punches
+
+    // Regular plus overtime minutes; lower than the paid minutes by lunchMinutes
+    public long getWorkedMinutes() {
+        return regularMinutes + overtimeMinutes;
+    }
+}
@@ -0,0 +1,308 @@
+package revisedms2;
+
+// Import necessary libraries
+import com.sun.net.httpserver.HttpExchange; // HTTP requests
+import com.sun.net.httpserver.HttpServer;   // Embedded HTTP server
+import java.io.IOException;           // Input/output exceptions
+import java.io.OutputStream;          // Response bodies
+import java.net.InetSocketAddress;    // Server address
+import java.net.URLDecoder;           // Query parameter decoding
+import java.nio.charset.StandardCharsets; // Character sets
+import java.util.*;                   // Collections and utilities
+import java.util.concurrent.ExecutorService; // Task executors
+import java.util.concurrent.Executors; // Virtual thread executors
+
+// Read-only HTTP/JSON service over published PayrollData versions, one virtual thread per request.
+// Each request takes the current version once, so a reload never changes data under it.
+class QueryServer {
+    PayrollDataStore store;               // Published data versions
+    PayrollCalculator payrollCalculator;  // Same payroll rules as the menu and batch run
+    PunchClassifier punchClassifier;      // Same punch rules as the menu
+    HttpServer server;                    // JDK HTTP server
+
+    // Serve from a data store
+    public QueryServer(PayrollDataStore store) {
+        this.store = store;
+        payrollCalculator = new PayrollCalculator();
+        punchClassifier = new PunchClassifier();
+    }
+
+    // Start listening on a port
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(threadPerTaskExecutor());  // Cheap thread per request on JDK 21
+        server.createContext("/employee", exchange -> handle(exchange, this::employee));
+        server.createContext("/hours", exchange -> handle(exchange, this::hours));
+        server.createContext("/gross", exchange -> handle(exchange, this::gross));
+        server.createContext("/net", exchange -> handle(exchange, this::net));
+        server.createContext("/timesheet", exchange -> handle(exchange, this::timesheet));
+        server.createContext("/headcount", exchange -> handle(exchange, this::headcount));
+        server.createContext("/present", exchange -> handle(exchange, this::present));
+        server.createContext("/absent", exchange -> handle(exchange, this::absent));
+        server.createContext("/cache", exchange -> handle(exchange, this::cache));
+        server.start();
+    }
+
+    // Stop accepting requests
+    public void stop() {
+        server.stop(0);
+    }
+
+    // A virtual thread per task on JDK 21 and later, otherwise a cached pool of platform threads,
+    // so the rest of the program still builds and runs on JDK 17
+    static ExecutorService threadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // A handler turns query parameters into a JSON body from one data version, or throws QueryException
+    interface Query {
+        String answer(PayrollData data, Map<String, String> params) throws QueryException;
+    }
+
+    // Client error with an HTTP status
+    static class QueryException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        int status;  // HTTP status code
+
+        QueryException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // GET /employee?id=10001
+    String employee(PayrollData data, Map<String, String> params) throws QueryException {
+        Employee emp = findEmployee(data, params);
+        EmployeeDetails details = emp.getDetails();  // Read from the master file on demand
+        return "{\"employeeNumber\":" + json(emp.getEmployeeNumber())
+            + ",\"fullName\":" + json(emp.getFullName())
+            + ",\"birthday\":" + json(emp.getBirthday())
+            + ",\"address\":" + json(details.address())
+            + ",\"phoneNumber\":" + json(details.phoneNumber())
+            + ",\"status\":" + json(details.status())
+            + ",\"position\":" + json(details.position())
+            + ",\"immediateSupervisor\":" + json(details.immediateSupervisor())
+            + ",\"sssNumber\":" + json(details.sssNumber())
+            + ",\"philhealthNumber\":" + json(details.philhealthNumber())
+            + ",\"tinNumber\":" + json(details.tinNumber())
+            + ",\"pagibigNumber\":" + json(details.pagibigNumber())
+            + ",\"basicSalary\":" + money(emp.getBasicSalaryCentavos())
+            + ",\"hourlyRate\":" + money(emp.getHourlyRateCentavos()) + "}";
+    }
+
+    // GET /hours?id=10001&start=06/03/2024&end=06/07/2024
+    String hours(PayrollData data, Map<String, String> params) throws QueryException {
+        String id = findEmployee(data, params).getEmployeeNumber();
+        int startDay = date(params, "start"), endDay = endDate(params, startDay);
+        long minutes = store.cache.get(data, id, startDay, endDay, PayrollQueryCache.QueryType.HOURS,
+            () -> data.attendanceFor(id, startDay, endDay).minutesInRange(id, startDay, endDay));
+        return "{\"employeeNumber\":" + json(id) + ",\"start\":" + json(TimeCodec.formatDate(startDay))
+            + ",\"end\":" + json(TimeCodec.formatDate(endDay)) + ",\"minutesWorked\":" + minutes
+            + ",\"hoursWorked\":" + String.format(Locale.ROOT, "%.2f", minutes / 60.0) + "}";
+    }
+
+    // GET /timesheet?id=10001&start=06/03/2024&end=06/07/2024 - attendance policy minutes, lunch
+    // reported apart; /hours is what pay uses
+    String timesheet(PayrollData data, Map<String, String> params) throws QueryException {
+        String id = findEmployee(data, params).getEmployeeNumber();
+        int startDay = date(params, "start"), endDay = endDate(params, startDay);
+        PunchTotals totals = punchClassifier.classify(data.attendanceFor(id, startDay, endDay), id, startDay, endDay);
+        return "{\"employeeNumber\":" + json(id) + ",\"start\":" + json(TimeCodec.formatDate(startDay))
+            + ",\"end\":" + json(TimeCodec.formatDate(endDay)) + ",\"days\":" + totals.days
+            + ",\"invalidDays\":" + totals.invalidDays + ",\"regularMinutes\":" + totals.regularMinutes
+            + ",\"overtimeMinutes\":" + totals.overtimeMinutes + ",\"lunchMinutes\":" + totals.lunchMinutes
+            + ",\"nightMinutes\":" + totals.nightMinutes
+            + ",\"lateMinutes\":" + totals.lateMinutes + ",\"undertimeMinutes\":" + totals.undertimeMinutes + "}";
+    }
+
+    // GET /headcount?start=06/03/2024&end=06/07/2024
+    String headcount(PayrollData data, Map<String, String> params) throws QueryException {
+        int startDay = date(params, "start"), endDay = dateRangeEnd(params, startDay);
+        StringBuilder json = new StringBuilder("{\"start\":").append(json(TimeCodec.formatDate(startDay)))
+            .append(",\"end\":").append(json(TimeCodec.formatDate(endDay))).append(",\"days\":[");
+        AttendanceRecord attendance = data.attendanceFor(startDay, endDay);
+        for (int day = startDay; day <= endDay; day++) {
+            if (day > startDay) json.append(',');
+            json.append("{\"date\":").append(json(TimeCodec.formatDate(day)))
+                .append(",\"present\":").append(attendance.headcount(day)).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    // GET /present?start=06/03/2024&end=06/07/2024, employees present on every day of the range
+    String present(PayrollData data, Map<String, String> params) throws QueryException {
+        int startDay = date(params, "start"), endDay = dateRangeEnd(params, startDay);
+        AttendanceRecord attendance = data.attendanceFor(startDay, endDay);
+        List<String> present = attendance.employeeNumbersOf(attendance.presentOn(startDay, endDay));
+        return "{\"start\":" + json(TimeCodec.formatDate(startDay)) + ",\"end\":" + json(TimeCodec.formatDate(endDay))
+            + ",\"count\":" + present.size() + ",\"employees\":" + jsonArray(present) + "}";
+    }
+
+    // GET /absent?date=06/03/2024, employees on file without usable punches that day
+    String absent(PayrollData data, Map<String, String> params) throws QueryException {
+        int day = date(params, "date");
+        List<String> absent = data.attendanceFor(day, day).absentOn(data.employees.keySet(), day);
+        return "{\"date\":" + json(TimeCodec.formatDate(day)) + ",\"count\":" + absent.size()
+            + ",\"employees\":" + jsonArray(absent) + "}";
+    }
+
+    // GET /gross?id=10001&start=06/01/2024&end=06/30/2024
+    String gross(PayrollData data, Map<String, String> params) throws QueryException {
+        Employee emp = findEmployee(data, params);
+        int startDay = date(params, "start"), endDay = endDate(params, startDay);
+        PayrollEntry entry = store.cache.get(data, emp.getEmployeeNumber(), startDay, endDay,
+            PayrollQueryCache.QueryType.GROSS,
+            () -> payrollRun(data, emp.getEmployeeNumber(), startDay, endDay).computeEntry(emp, startDay, endDay));
+        return "{\"employeeNumber\":" + json(emp.getEmployeeNumber()) + ",\"fullName\":" + json(emp.getFullName())
+            + ",\"hoursWorked\":" + String.format(Locale.ROOT, "%.2f", entry.getHoursWorked())
+            + ",\"grossSalary\":" + money(entry.grossPay) + "}";
+    }
+
+    // GET /net?id=10001
+    String net(PayrollData data, Map<String, String> params) throws QueryException {
+        Employee emp = findEmployee(data, params);
+        PayrollEntry entry = store.cache.get(data, emp.getEmployeeNumber(), 0, -1, PayrollQueryCache.QueryType.NET,
+            () -> payrollRun(data, emp.getEmployeeNumber(), 0, -1).computeEntry(emp, 0, -1));  // Net pay uses basic salary only
+        StringBuilder json = new StringBuilder("{\"employeeNumber\":").append(json(emp.getEmployeeNumber()))
+            .append(",\"basicSalary\":").append(money(emp.getBasicSalaryCentavos())).append(",\"deductions\":{");
+        List<Deduction> deductions = payrollCalculator.deductions;
+        for (int i = 0; i < deductions.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(json(deductions.get(i).getName())).append(':').append(money(entry.deductions[i]));
+        }
+        return json.append("},\"totalDeductions\":").append(money(entry.totalDeductions))
+            .append(",\"taxableIncome\":").append(money(entry.taxableIncome))
+            .append(",\"withholdingTax\":").append(money(entry.withholdingTax))
+            .append(",\"netSalary\":").append(money(entry.netPay)).append('}').toString();
+    }
+
+    // GET /cache
+    String cache(PayrollData data, Map<String, String> params) {
+        PayrollQueryCache cache = store.cache;
+        synchronized (cache) {
+            return "{\"version\":" + cache.version + ",\"entries\":" + cache.entries.size()
+                + ",\"capacity\":" + cache.capacity + ",\"hits\":" + cache.hits + ",\"misses\":" + cache.misses
+                + ",\"evictions\":" + cache.evictions + ",\"invalidations\":" + cache.invalidations + "}";
+        }
+    }
+
+    // Run a query and send its JSON, or an error object
+    private void handle(HttpExchange exchange, Query query) throws IOException {
+        long started = Metrics.start();
+        int status = 200;
+        String body;
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) throw new QueryException(405, "Only GET is supported.");
+            body = query.answer(store.current(), parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (QueryException e) {
+            status = e.status;
+            body = "{\"error\":" + json(e.getMessage()) + "}";
+        } catch (RuntimeException e) {
+            status = 500;
+            body = "{\"error\":\"Internal error.\"}";  // Details stay in the server log
+            System.err.println("Error answering " + exchange.getRequestURI() + ":");
+            e.printStackTrace();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        if (status != 200) Metrics.add(Metrics.QUERY_ERRORS, 1);
+        Metrics.QUERY.recordSince(started);
+    }
+
+    // Payroll rules over one data version, with the attendance an employee's date range needs
+    private PayrollRun payrollRun(PayrollData data, String empNumber, int startDay, int endDay) {
+        return new PayrollRun(data.employees, data.attendanceFor(empNumber, startDay, endDay), payrollCalculator);
+    }
+
+    // Employee named by the id parameter
+    private static Employee findEmployee(PayrollData data, Map<String, String> params) throws QueryException {
+        Employee emp = data.employees.get(required(params, "id"));
+        if (emp == null) throw new QueryException(404, "Employee not found.");
+        return emp;
+    }
+
+    // Value of a parameter that must be present
+    private static String required(Map<String, String> params, String name) throws QueryException {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) throw new QueryException(400, "Missing parameter: " + name);
+        return value.trim();
+    }
+
+    // Date parameter as an epoch day
+    private static int date(Map<String, String> params, String name) throws QueryException {
+        int day = TimeCodec.parseDate(required(params, name));
+        if (day == TimeCodec.INVALID_DATE) throw new QueryException(400, "Invalid date format for " + name + ", use MM/dd/yyyy.");
+        return day;
+    }
+
+    // End date parameter, which must not be before the start
+    private static int endDate(Map<String, String> params, int startDay) throws QueryException {
+        int endDay = date(params, "end");
+        if (endDay < startDay) throw new QueryException(400, "End date is before start date.");
+        return endDay;
+    }
+
+    // End date parameter for day-by-day answers, which must also be within a year of the start
+    private static int dateRangeEnd(Map<String, String> params, int startDay) throws QueryException {
+        int endDay = endDate(params, startDay);
+        if (endDay - startDay > 366) throw new QueryException(400, "Date range is longer than a year.");
+        return endDay;
+    }
+
+    // Split a raw query string into decoded parameters
+    private static Map<String, String> parseQuery(String rawQuery) throws QueryException {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals < 0) continue;
+            params.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+        }
+        return params;
+    }
+
+    // Percent-decoded query text, where a bad escape is the client's error
+    private static String decode(String text) throws QueryException {
+        try {
+            return URLDecoder.decode(text, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(400, "Malformed query string.");
+        }
+    }
+
+    // JSON string literal
+    static String json(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < ' ') out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        return out.append('"').toString();
+    }
+
+    // JSON array of strings
+    private static String jsonArray(List<String> values) {
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) out.append(',');
+            out.append(json(values.get(i)));
+        }
+        return out.append(']').toString();
+    }
+
+    // JSON number with two decimals from centavos
+    private static String money(long centavos) {
+        return Centavos.format(centavos);
+    }
+}
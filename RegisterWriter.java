@@ -0,0 +1,195 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.Closeable;            // Closeable readers
+import java.io.IOException;           // Input/output exceptions
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.channels.FileChannel; // File channels
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Paths;           // File path factory
+import java.nio.file.StandardOpenOption; // File open modes
+import java.util.*;                   // Collections and utilities
+
+// Streams payroll register rows to a FileChannel through one direct buffer, formatting numbers
+// by hand. CSV is UTF-8 with one column per deduction; BANK is a fixed-width ASCII upload file.
+class RegisterWriter implements Closeable {
+    // Output layouts
+    enum Format { CSV, BANK }
+
+    static final int BUFFER_BYTES = 64 * 1024;  // Flushed to the channel when full
+    static final int BANK_NAME_WIDTH = 40;      // Name column in BANK records
+    static final int BANK_AMOUNT_WIDTH = 15;    // Centavo amount column in BANK records
+    static final String BANK_COMPANY = "MOTORPH";
+
+    FileChannel channel;          // Output file
+    ByteBuffer buffer;            // Reused for every row
+    Format format;                // Layout
+    byte[] digits = new byte[20]; // Scratch for number formatting
+    byte[] lineSeparator;         // Ends CSV rows
+    long records;                 // Rows written
+    long totalCentavos;           // Net pay written, for the BANK trailer
+
+    // Open the file and write the header
+    public RegisterWriter(String filePath, Format format, List<Deduction> deductions,
+                          int startDay, int endDay) throws IOException {
+        channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.format = format;
+        lineSeparator = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+        if (format == Format.CSV) {
+            text("Employee #,Name,Hours Worked,Gross Pay");
+            for (Deduction deduction : deductions) text(",").text(deduction.getName());
+            text(",Total Deductions,Taxable Income,Withholding Tax,Net Pay").bytes(lineSeparator);
+        } else {
+            // H, company, period start and end as yyyyMMdd
+            text("H").padded(BANK_COMPANY, 20).date(startDay).date(endDay);
+            spaces(bankRecordLength() - 37).text("\r\n");
+        }
+    }
+
+    // Write one employee's row
+    public void write(PayrollEntry entry) throws IOException {
+        Employee emp = entry.employee;
+        if (format == Format.CSV) {
+            text(emp.getEmployeeNumber()).text(",\"");
+            String name = emp.getFullName();
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '"') text("\"\"");  // Escape quotes
+                else character(c);
+            }
+            text("\",").hours(entry.minutesWorked).text(",").money(entry.grossPay);
+            for (long amount : entry.deductions) text(",").money(amount);
+            text(",").money(entry.totalDeductions).text(",").money(entry.taxableIncome)
+                .text(",").money(entry.withholdingTax).text(",").money(entry.netPay).bytes(lineSeparator);
+        } else {
+            // D, employee number, name, sign and net pay in centavos
+            long centavos = entry.netPay;
+            text("D").padded(emp.getEmployeeNumber(), 10).padded(emp.getFullName(), BANK_NAME_WIDTH)
+                .text(centavos < 0 ? "-" : "+").zeroPadded(Math.abs(centavos), BANK_AMOUNT_WIDTH).text("\r\n");
+            totalCentavos += centavos;
+        }
+        records++;
+    }
+
+    // Write the BANK trailer, flush and close the file
+    @Override
+    public void close() throws IOException {
+        try {
+            if (format == Format.BANK) {
+                // T, record count, sign and total net pay in centavos
+                text("T").zeroPadded(records, 10).text(totalCentavos < 0 ? "-" : "+")
+                    .zeroPadded(Math.abs(totalCentavos), 18);
+                spaces(bankRecordLength() - 30).text("\r\n");
+            }
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Characters in every BANK record, before the line break
+    static int bankRecordLength() {
+        return 1 + 10 + BANK_NAME_WIDTH + 1 + BANK_AMOUNT_WIDTH;
+    }
+
+    // ASCII text, or UTF-8 for anything beyond
+    private RegisterWriter text(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) character(value.charAt(i));
+        return this;
+    }
+
+    // One character as UTF-8; surrogate pairs are written as their two halves' replacement
+    private void character(char c) throws IOException {
+        room(3);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+        }
+    }
+
+    // ASCII text cut or space-padded to a width; other characters become '?'
+    private RegisterWriter padded(String value, int width) throws IOException {
+        room(width);
+        int length = Math.min(value.length(), width);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            buffer.put((byte) (c >= ' ' && c < 0x7F ? c : '?'));
+        }
+        return spaces(width - length);
+    }
+
+    // Spaces
+    private RegisterWriter spaces(int count) throws IOException {
+        room(count);
+        for (int i = 0; i < count; i++) buffer.put((byte) ' ');
+        return this;
+    }
+
+    // Minutes as hours with two decimals, rounded half up: whole hours, then the remaining
+    // minutes in hundredths of an hour. A remainder is a multiple of 1/60 hour, never a tie.
+    private RegisterWriter hours(long minutes) throws IOException {
+        long whole = Math.abs(minutes) / 60, remainder = Math.abs(minutes) % 60;
+        long hundredths = whole * 100 + (remainder * 100 + 30) / 60;
+        return money(minutes < 0 ? -hundredths : hundredths);
+    }
+
+    // Centavo amount as pesos with two decimals
+    private RegisterWriter money(long centavos) throws IOException {
+        room(24);
+        if (centavos < 0) buffer.put((byte) '-');
+        unsigned(Math.abs(centavos) / 100, 1);
+        buffer.put((byte) '.');
+        return unsigned(Math.abs(centavos) % 100, 2);
+    }
+
+    // Whole number left-padded with zeros to a width
+    private RegisterWriter zeroPadded(long value, int width) throws IOException {
+        room(Math.max(width, 20));
+        return unsigned(value, width);
+    }
+
+    // Date as yyyyMMdd
+    private RegisterWriter date(int epochDay) throws IOException {
+        room(8);
+        String date = TimeCodec.formatDate(epochDay);  // MM/dd/yyyy
+        return text(date.substring(6)).text(date.substring(0, 2)).text(date.substring(3, 5));
+    }
+
+    // Digits of a non-negative number, at least the given count
+    private RegisterWriter unsigned(long value, int minDigits) {
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (count < minDigits) digits[count++] = '0';
+        while (count > 0) buffer.put(digits[--count]);
+        return this;
+    }
+
+    // Raw bytes
+    private RegisterWriter bytes(byte[] value) throws IOException {
+        room(value.length);
+        buffer.put(value);
+        return this;
+    }
+
+    // Make sure the buffer has space, flushing if needed
+    private void room(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) flush();
+    }
+
+    // Write out the buffer
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
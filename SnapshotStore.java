@@ -0,0 +1,342 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.nio.BufferUnderflowException; // Truncated buffers
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.ByteOrder;            // Byte order of binary files
+import java.nio.MappedByteBuffer;     // Memory-mapped files
+import java.nio.channels.FileChannel; // File channels
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.nio.file.Paths;           // File path factory
+import java.nio.file.StandardCopyOption; // File move options
+import java.nio.file.StandardOpenOption; // File open modes
+import java.util.*;                   // Collections and utilities
+
+// Versioned binary snapshot of parsed employees and attendance. Loading maps the file and copies
+// every section into heap arrays, so start-up skips CSV parsing and the prefix-sum pass but still
+// costs a copy proportional to the data. Layout (little-endian): header with source file stamps,
+// string table, fixed-width employee records, the attendance columns in (employee, day) order,
+// then each employee's prefix sums and each day's set of present employees.
+class SnapshotStore {
+    static final int MAGIC = 0x5348504D;   // "MPHS"
+    static final int VERSION = 9;          // Bump when the layout or stored codes change
+    static final int EMPLOYEE_BYTES = 56;  // Size of one employee record
+
+    String snapshotPath;       // Snapshot file
+    String employeesPath;      // Employee CSV it was built from
+    String attendancePath;     // Attendance CSV it was built from
+    boolean attendanceCurrent; // Attendance CSV unchanged since the last load
+    AttendanceWatermark watermark;  // How far the attendance CSV had been read at the last load
+
+    // Describe a snapshot and its source files
+    public SnapshotStore(String snapshotPath, String employeesPath, String attendancePath) {
+        this.snapshotPath = snapshotPath;
+        this.employeesPath = employeesPath;
+        this.attendancePath = attendancePath;
+    }
+
+    // Read the snapshot; returns null if it is missing, from another version, or the employee
+    // CSV changed. Afterwards attendanceCurrent tells whether the attendance CSV changed too.
+    public PayrollData load() throws IOException {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;  // Foreign or old layout
+
+            if (!matches(employeesPath, in.getLong(), in.getLong())) return null;  // Employee CSV changed
+            attendanceCurrent = matches(attendancePath, in.getLong(), in.getLong());
+            watermark = new AttendanceWatermark();
+            watermark.offset = in.getLong();
+            watermark.checksum = in.getLong();
+            watermark.prefixChecksum = in.getLong();
+
+            String[] strings = readStrings(in);
+
+            // Employee records
+            int employeeCount = in.getInt();
+            in.getInt();  // Padding
+            EmployeeTable employees = new EmployeeTable(employeesPath);  // Unchanged, so the row offsets hold
+            for (int i = 0; i < employeeCount; i++) {
+                String number = strings[in.getInt()];
+                String firstName = strings[in.getInt()];
+                int lastName = in.getInt();  // -1 when the first name is the full name
+                String birthday = strings[in.getInt()];
+                int rowBytes = in.getInt();
+                in.getInt();  // Padding
+                long rowOffset = in.getLong();
+                double basicSalary = in.getDouble();
+                double hourlyRate = in.getDouble();
+                String position = strings[in.getInt()];
+                String supervisor = strings[in.getInt()];
+                employees.add(number, firstName, lastName < 0 ? null : strings[lastName], birthday,
+                    basicSalary, hourlyRate, position, supervisor, rowOffset, rowBytes);
+            }
+
+            PayrollData data = new PayrollData(employees.asMap(), readAttendance(in, strings));
+            data.watermark = watermark;  // Where the stored rows end in the attendance CSV
+            return data;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            return null;  // Truncated or corrupt snapshot
+        }
+    }
+
+    // String table: count, offsets into one UTF-8 blob, the blob, padding
+    static String[] readStrings(ByteBuffer in) {
+        int stringCount = in.getInt();
+        int[] offsets = new int[stringCount + 1];
+        in.asIntBuffer().get(offsets);
+        in.position(in.position() + offsets.length * 4);
+        byte[] blob = new byte[offsets[stringCount]];
+        in.get(blob);
+        align(in);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = new String(blob, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    // Attendance section: employee numbers as string indexes, the four columns, then the pairs of
+    // days punched more than once
+    static AttendanceRecord readAttendance(ByteBuffer in, String[] strings) {
+        int ordinalCount = in.getInt();
+        int rows = in.getInt();
+        String[] employeeNumbers = new String[ordinalCount];
+        for (int i = 0; i < ordinalCount; i++) employeeNumbers[i] = strings[in.getInt()];
+        align(in);
+        int[] employeeColumn = new int[rows];
+        int[] dayColumn = new int[rows];
+        short[] logInColumn = new short[rows];
+        short[] logOutColumn = new short[rows];
+        in.asIntBuffer().get(employeeColumn);
+        in.position(in.position() + rows * 4);
+        in.asIntBuffer().get(dayColumn);
+        in.position(in.position() + rows * 4);
+        in.asShortBuffer().get(logInColumn);
+        in.position(in.position() + rows * 2);
+        in.asShortBuffer().get(logOutColumn);
+        in.position(in.position() + rows * 2);
+        align(in);
+
+        // Pairs of days punched more than once; then padding
+        int pairCount = in.getInt();
+        in.getInt();  // Padding
+        int[] pairOffsets = new int[rows + 1];
+        int[] pairs = new int[pairCount];
+        if (pairCount > 0) {
+            in.asIntBuffer().get(pairOffsets);
+            in.position(in.position() + (rows + 1) * 4);
+            in.asIntBuffer().get(pairs);
+            in.position(in.position() + pairCount * 4);
+            align(in);
+        }
+
+        // Prefix sums per employee: first day, length (0 for none), sums; then padding
+        int[] prefixFirstDay = new int[ordinalCount];
+        int[][] prefixMinutes = new int[ordinalCount][];
+        for (int e = 0; e < ordinalCount; e++) {
+            prefixFirstDay[e] = in.getInt();
+            int length = in.getInt();
+            if (length == 0) continue;
+            prefixMinutes[e] = new int[length];
+            in.asIntBuffer().get(prefixMinutes[e]);
+            in.position(in.position() + length * 4);
+        }
+        align(in);
+
+        // Ordinals present each day: first day, day count, then per day a word count, padding and words
+        DayIndex dayIndex = new DayIndex();
+        dayIndex.firstDay = in.getInt();
+        dayIndex.days = new BitSet[in.getInt()];
+        dayIndex.owned = new boolean[dayIndex.days.length];
+        Arrays.fill(dayIndex.owned, true);
+        for (int d = 0; d < dayIndex.days.length; d++) {
+            int words = in.getInt();
+            in.getInt();  // Padding
+            if (words == 0) continue;
+            dayIndex.days[d] = BitSet.valueOf(in.slice(in.position(), words * 8));
+            in.position(in.position() + words * 8);
+        }
+        return AttendanceRecord.fromSortedColumns(employeeNumbers, employeeColumn, dayColumn, logInColumn,
+            logOutColumn, pairOffsets, pairs, prefixFirstDay, prefixMinutes, dayIndex);
+    }
+
+    // Write a snapshot of loaded data, replacing the old one in one step
+    public void write(PayrollData data, AttendanceWatermark watermark) throws IOException {
+        AttendanceRecord attendance = data.attendance;
+        attendance.sort();
+
+        // Build the string table
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Employee emp : data.employees.values()) {
+            stringIndex(emp.getEmployeeNumber(), indexes, strings);
+            stringIndex(firstName(emp), indexes, strings);
+            if (lastName(emp) != null) stringIndex(lastName(emp), indexes, strings);
+            stringIndex(emp.getBirthday(), indexes, strings);
+            stringIndex(emp.getPosition(), indexes, strings);
+            stringIndex(emp.getImmediateSupervisor(), indexes, strings);
+        }
+        for (int e = 0; e < attendance.employeeCount; e++) {
+            stringIndex(attendance.employeeNumbers[e], indexes, strings);
+        }
+
+        Path target = Paths.get(snapshotPath);
+        Path temp = Paths.get(snapshotPath + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+            // Header
+            Path employeesFile = Paths.get(employeesPath);
+            Path attendanceFile = Paths.get(attendancePath);
+            out.putInt(MAGIC).putInt(VERSION);
+            out.putLong(Files.size(employeesFile)).putLong(Files.getLastModifiedTime(employeesFile).toMillis());
+            out.putLong(Files.size(attendanceFile)).putLong(Files.getLastModifiedTime(attendanceFile).toMillis());
+            out.putLong(watermark.offset).putLong(watermark.checksum).putLong(watermark.prefixChecksum);
+
+            out = writeStrings(channel, out, strings);
+
+            // Employee records
+            out = room(channel, out, 8).putInt(data.employees.size()).putInt(0);
+            for (Employee emp : data.employees.values()) {
+                out = room(channel, out, EMPLOYEE_BYTES);
+                out.putInt(indexes.get(emp.getEmployeeNumber()));
+                out.putInt(indexes.get(firstName(emp)));
+                out.putInt(lastName(emp) == null ? -1 : indexes.get(lastName(emp)));
+                out.putInt(indexes.get(emp.getBirthday()));
+                out.putInt(emp instanceof EmployeeTable.EmployeeView view ? view.table.rowBytes(view.row) : 0);
+                out.putInt(0);  // Padding
+                out.putLong(emp instanceof EmployeeTable.EmployeeView view ? view.table.rowOffset(view.row) : -1);
+                out.putDouble(emp.getBasicSalary());
+                out.putDouble(emp.getHourlyRate());
+                out.putInt(indexes.get(emp.getPosition()));
+                out.putInt(indexes.get(emp.getImmediateSupervisor()));
+            }
+
+            out = writeAttendance(channel, out, attendance, indexes);
+            flush(channel, out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Write a string table as readStrings reads it
+    static ByteBuffer writeStrings(FileChannel channel, ByteBuffer out, List<String> strings) throws IOException {
+        byte[][] encoded = new byte[strings.size()][];
+        out = room(channel, out, 4).putInt(strings.size());
+        int offset = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            out = room(channel, out, 4).putInt(offset);
+            offset += encoded[i].length;
+        }
+        out = room(channel, out, 4).putInt(offset);
+        for (byte[] bytes : encoded) {
+            out = room(channel, out, bytes.length);
+            if (bytes.length > out.remaining()) {
+                flush(channel, out);
+                channel.write(ByteBuffer.wrap(bytes));  // Longer than the buffer
+            } else {
+                out.put(bytes);
+            }
+        }
+        return pad(channel, out, offset + 4L * (encoded.length + 2));
+    }
+
+    // Write a sorted record's attendance section as readAttendance reads it
+    static ByteBuffer writeAttendance(FileChannel channel, ByteBuffer out, AttendanceRecord attendance,
+                                      Map<String, Integer> indexes) throws IOException {
+        out = room(channel, out, 8).putInt(attendance.employeeCount).putInt(attendance.size);
+        for (int e = 0; e < attendance.employeeCount; e++) {
+            out = room(channel, out, 4).putInt(indexes.get(attendance.employeeNumbers[e]));
+        }
+        out = pad(channel, out, 4L * attendance.employeeCount);
+        for (int i = 0; i < attendance.size; i++) out = room(channel, out, 4).putInt(attendance.employeeColumn[i]);
+        for (int i = 0; i < attendance.size; i++) out = room(channel, out, 4).putInt(attendance.dayColumn[i]);
+        for (int i = 0; i < attendance.size; i++) out = room(channel, out, 2).putShort(attendance.logInColumn[i]);
+        for (int i = 0; i < attendance.size; i++) out = room(channel, out, 2).putShort(attendance.logOutColumn[i]);
+        out = pad(channel, out, 12L * attendance.size);
+
+        // Pairs of days punched more than once, with their row offsets only when there are any, padded
+        out = room(channel, out, 8).putInt(attendance.intervalCount).putInt(0);
+        if (attendance.intervalCount > 0) {
+            for (int i = 0; i <= attendance.size; i++) out = room(channel, out, 4).putInt(attendance.intervalOffsets[i]);
+            for (int i = 0; i < attendance.intervalCount; i++) out = room(channel, out, 4).putInt(attendance.intervals[i]);
+            out = pad(channel, out, 8 + 4L * (attendance.size + 1) + 4L * attendance.intervalCount);
+        }
+
+        // Prefix sums and day sets, so loading copies them instead of recomputing
+        long prefixBytes = 0;
+        for (int e = 0; e < attendance.employeeCount; e++) {
+            int[] prefix = attendance.prefixMinutes[e];
+            out = room(channel, out, 8).putInt(attendance.prefixFirstDay[e]).putInt(prefix == null ? 0 : prefix.length);
+            if (prefix != null) for (int sum : prefix) out = room(channel, out, 4).putInt(sum);
+            prefixBytes += 8 + (prefix == null ? 0 : 4L * prefix.length);
+        }
+        out = pad(channel, out, prefixBytes);
+        DayIndex dayIndex = attendance.dayIndex;
+        out = room(channel, out, 8).putInt(dayIndex.firstDay).putInt(dayIndex.days.length);
+        for (BitSet present : dayIndex.days) {
+            long[] words = present == null ? new long[0] : present.toLongArray();
+            out = room(channel, out, 8).putInt(words.length).putInt(0);
+            for (long word : words) out = room(channel, out, 8).putLong(word);
+        }
+        return out;
+    }
+
+    // Whether a file still has the recorded size and modification time
+    private boolean matches(String filePath, long size, long modified) throws IOException {
+        Path file = Paths.get(filePath);
+        return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == modified;
+    }
+
+    // First name as the table stores it, or the whole name for an employee built from one
+    private static String firstName(Employee emp) {
+        return emp instanceof EmployeeTable.EmployeeView view ? view.table.firstName(view.row) : emp.getFullName();
+    }
+
+    // Last name as the table stores it, or null for an employee built from a full name
+    private static String lastName(Employee emp) {
+        return emp instanceof EmployeeTable.EmployeeView view ? view.table.lastName(view.row) : null;
+    }
+
+    // Index of a string in the table, adding it if new
+    private static int stringIndex(String value, Map<String, Integer> indexes, List<String> strings) {
+        Integer index = indexes.get(value);
+        if (index != null) return index;
+        indexes.put(value, strings.size());
+        strings.add(value);
+        return strings.size() - 1;
+    }
+
+    // Make sure the buffer has room for the given bytes, flushing if needed
+    static ByteBuffer room(FileChannel channel, ByteBuffer out, int bytes) throws IOException {
+        if (out.remaining() < bytes) flush(channel, out);
+        return out;
+    }
+
+    // Pad a section of the given length to a multiple of 8 bytes
+    private static ByteBuffer pad(FileChannel channel, ByteBuffer out, long sectionBytes) throws IOException {
+        int padding = (int) ((8 - sectionBytes % 8) % 8);
+        room(channel, out, padding);
+        for (int i = 0; i < padding; i++) out.put((byte) 0);
+        return out;
+    }
+
+    // Skip read padding up to a multiple of 8 bytes
+    private static void align(ByteBuffer in) {
+        in.position((in.position() + 7) & ~7);
+    }
+
+    // Write buffered bytes to the channel
+    static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+}
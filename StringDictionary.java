@@ -0,0 +1,30 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.*;                   // Collections and utilities
+
+// Deduplicated strings with dense int ids, for values that repeat across many rows
+class StringDictionary {
+    Map<String, Integer> ids = new HashMap<>();  // String -> id
+    List<String> strings = new ArrayList<>();    // Id -> string
+
+    // Id of a string, adding it if new
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        ids.put(value, strings.size());
+        strings.add(value);
+        return strings.size() - 1;
+    }
+
+    // Id of a string, or -1 if it was never added
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    // String for an id
+    public String get(int id) {
+        return strings.get(id);
+    }
+}
@@ -0,0 +1,116 @@
+package revisedms2;
+
+// Converts attendance dates and times to primitive codes
+class TimeCodec {
+    static final int INVALID_DATE = Integer.MIN_VALUE;  // Marker for an unreadable date
+    static final int NO_TIME = -1;                      // Blank time field
+    static final int BAD_TIME = -2;                     // Unreadable time field
+    static final int MINUTES_PER_DAY = 24 * 60;         // Added to a log-out that crossed midnight
+
+    // Parse MM/dd/yyyy into days since 1970-01-01
+    public static int parseDate(CharSequence text) {
+        int length = text.length();
+        int month = 0, day = 0, year = 0;  // Parsed parts
+        int part = 0;                      // 0 = month, 1 = day, 2 = year
+        int digits = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 4) return INVALID_DATE;  // Too many digits
+                int digit = c - '0';
+                if (part == 0) month = month * 10 + digit;
+                else if (part == 1) day = day * 10 + digit;
+                else year = year * 10 + digit;
+            } else if (c == '/' && part < 2 && digits > 0) {
+                part++;      // Move to next part
+                digits = 0;  // Reset digit count
+            } else {
+                return INVALID_DATE;  // Unexpected character
+            }
+        }
+        if (part != 2 || digits == 0) return INVALID_DATE;  // Incomplete date
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return INVALID_DATE;  // Out of calendar range
+        }
+        return epochDay(year, month, day);
+    }
+
+    // Parse H:mm or HH:mm into minutes since midnight; NO_TIME if blank, BAD_TIME if unreadable
+    public static int parseMinuteOfDay(CharSequence text) {
+        int length = text.length();
+        if (length == 0) return NO_TIME;  // Nothing punched
+        int hours = 0, minutes = 0;
+        int colon = -1;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (colon < 0) hours = hours * 10 + (c - '0');  // Hour digit
+                else minutes = minutes * 10 + (c - '0');        // Minute digit
+            } else if (c == ':' && colon < 0 && i > 0) {
+                colon = i;  // Remember separator
+            } else {
+                return BAD_TIME;  // Unexpected character
+            }
+        }
+        if (colon < 0 || colon > 2 || length - colon != 3) return BAD_TIME;  // Bad shape
+        if (hours > 23 || minutes > 59) return BAD_TIME;                      // Out of range
+        return hours * 60 + minutes;
+    }
+
+    // Days since 1970-01-01 for a civil date
+    public static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;                  // Year starts in March
+        int era = (y >= 0 ? y : y - 399) / 400;                // 400-year era
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Month of days since 1970-01-01, counted as year * 12 + month - 1
+    public static int monthOf(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    // Format days since 1970-01-01 as MM/dd/yyyy
+    public static String formatDate(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        char[] out = {
+            (char) ('0' + month / 10), (char) ('0' + month % 10), '/',
+            (char) ('0' + day / 10), (char) ('0' + day % 10), '/',
+            (char) ('0' + year / 1000 % 10), (char) ('0' + year / 100 % 10),
+            (char) ('0' + year / 10 % 10), (char) ('0' + year % 10)
+        };
+        return new String(out);
+    }
+
+    // Format a number of minutes as H:mm
+    public static String formatDuration(long minutes) {
+        return String.format("%d:%02d", minutes / 60, minutes % 60);
+    }
+
+    // Number of days in a month
+    static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+}
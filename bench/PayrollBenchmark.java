@@ -0,0 +1,200 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.FileReader;            // File handling
+import java.io.IOException;           // Input/output exceptions
+import java.io.Reader;                // Character streams
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Paths;           // File path factory
+import java.util.*;                   // Collections and utilities
+import java.util.concurrent.TimeUnit; // Time units
+import org.openjdk.jmh.annotations.*; // Benchmark annotations
+
+// JMH benchmarks for loading, range queries, hours, deductions and batch payroll. Run with
+// "gradle jmh", which adds the GC profiler for allocation rates; -p employeeCount=... -p years=...
+// pick the generated data size, or -p dataDirectory=... an existing data directory.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class PayrollBenchmark {
+    static final int QUERIES = 1024;  // Query inputs cycled through, a power of two
+
+    @Param({"10000"})
+    int employeeCount;    // Employees in generated data
+    @Param({"5"})
+    int years;            // Years of generated attendance
+    @Param({""})
+    String dataDirectory; // Existing data to use instead, blank to generate
+
+    String employeesPath;           // Employee CSV
+    String attendancePath;          // Attendance CSV
+    Map<String, Employee> employees;   // Loaded employees
+    AttendanceRecord attendance;    // Loaded attendance
+    PayrollCalculator calculator;   // Calculator from the data directory's rates
+    PayrollRun payrollRun;          // Batch run over the loaded data
+    PayrollAggregator aggregator;   // Rollup over the loaded data
+    PunchClassifier classifier;     // Attendance policy
+    String[] ids;                   // Employee numbers, sorted
+    long[] salaries;                // Basic salary per employee, in centavos
+    long[] totals;                  // Bulk deduction output
+    String[] queryIds;              // Employee per query slot
+    int[] queryStarts;              // First day per query slot
+    int lastDay;                    // Latest day with attendance
+
+    // Query slot advanced by each call, one per benchmark thread
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;           // Calls made
+        AttendanceRange range = new AttendanceRange();  // Reused query window
+
+        int slot() {
+            return next++ & (QUERIES - 1);
+        }
+    }
+
+    // Generate the data unless it exists, then load it once for the trial
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        String directory = dataDirectory;
+        if (directory.isEmpty()) {
+            directory = Paths.get(System.getProperty("java.io.tmpdir"), "motorph-bench-" + employeeCount + "x" + years).toString();
+            if (!Files.exists(Paths.get(DataLoader.dataFile(directory, DataLoader.ATTENDANCE_FILE)))) {
+                SyntheticDataGenerator.generate(directory, employeeCount, years);
+            }
+        }
+        employeesPath = DataLoader.dataFile(directory, DataLoader.EMPLOYEES_FILE);
+        attendancePath = DataLoader.dataFile(directory, DataLoader.ATTENDANCE_FILE);
+        employees = DataLoader.loadEmployees(employeesPath);
+        attendance = new AttendanceRecord();
+        DataLoader.loadAttendanceParallel(attendance, attendancePath);
+        calculator = calculatorFor(directory);
+        payrollRun = new PayrollRun(employees, attendance, calculator);
+        aggregator = new PayrollAggregator(employees, attendance, calculator);
+        classifier = new PunchClassifier();
+
+        // Query inputs: one employee and one pay period per slot, fixed up front
+        ids = employees.keySet().toArray(new String[0]);
+        Arrays.sort(ids);
+        lastDay = Integer.MIN_VALUE;
+        for (int row = 0; row < attendance.size(); row++) lastDay = Math.max(lastDay, attendance.dayAt(row));
+        Random random = new Random(11);
+        queryIds = new String[QUERIES];
+        queryStarts = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryIds[i] = ids[random.nextInt(ids.length)];
+            queryStarts[i] = lastDay - random.nextInt(365) - 14;
+        }
+        salaries = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) salaries[i] = employees.get(ids[i]).getBasicSalaryCentavos();
+        totals = new long[ids.length];
+    }
+
+    // Rates from the data directory when it has them, else from the motorph.rates file or the search path
+    static PayrollCalculator calculatorFor(String directory) throws IOException {
+        String rates = DataLoader.dataFile(directory, DataLoader.RATES_FILE);
+        if (!Files.exists(Paths.get(rates))) return new PayrollCalculator();
+        try (Reader source = new FileReader(rates, StandardCharsets.UTF_8)) {
+            return new PayrollCalculator(ContributionTables.load(source));
+        }
+    }
+
+    @Benchmark
+    public int loadEmployees() throws IOException {
+        return DataLoader.loadEmployees(employeesPath).size();
+    }
+
+    @Benchmark
+    public int loadAttendance() throws IOException {
+        AttendanceRecord record = new AttendanceRecord();
+        DataLoader.loadAttendance(record, attendancePath);
+        return record.size();
+    }
+
+    @Benchmark
+    public int loadAttendanceParallel() throws IOException {
+        AttendanceRecord record = new AttendanceRecord();
+        DataLoader.loadAttendanceParallel(record, attendancePath);
+        return record.size();
+    }
+
+    @Benchmark
+    public int getAttendanceInRange(Cursor cursor) {
+        int q = cursor.slot();
+        return attendance.getAttendanceInRange(queryIds[q], queryStarts[q], queryStarts[q] + 14, cursor.range).size();
+    }
+
+    // Hours for a pay period by walking its rows
+    @Benchmark
+    public long hoursWorkedScan(Cursor cursor) {
+        int q = cursor.slot();
+        AttendanceRange range = attendance.getAttendanceInRange(queryIds[q], queryStarts[q], queryStarts[q] + 14, cursor.range);
+        long minutes = 0;
+        for (int row = range.from; row < range.to; row++) minutes += attendance.minutesWorkedAt(row);
+        return minutes;
+    }
+
+    // Hours for a pay period from the prefix sums
+    @Benchmark
+    public long hoursWorkedPrefixSum(Cursor cursor) {
+        int q = cursor.slot();
+        return attendance.minutesInRange(queryIds[q], queryStarts[q], queryStarts[q] + 14);
+    }
+
+    // Minutes of every row in the history
+    @Benchmark
+    public long historySubtract() {
+        long minutes = 0;
+        for (int row = 0, rows = attendance.size(); row < rows; row++) minutes += attendance.minutesWorkedAt(row);
+        return minutes;
+    }
+
+    @Benchmark
+    public long historyClassify() {
+        PunchTotals kinds = new PunchTotals();
+        classifier.classify(attendance, 0, attendance.size(), kinds);
+        return kinds.getWorkedMinutes() + kinds.nightMinutes + kinds.lateMinutes + kinds.undertimeMinutes;
+    }
+
+    @Benchmark
+    public int headcount(Cursor cursor) {
+        return attendance.headcount(queryStarts[cursor.slot()]);
+    }
+
+    @Benchmark
+    public int presentAllWeek(Cursor cursor) {
+        int q = cursor.slot();
+        return attendance.presentOn(queryStarts[q], queryStarts[q] + 4).cardinality();
+    }
+
+    // Deductions for every employee, one salary at a time
+    @Benchmark
+    public long deductionsScalar() {
+        long total = 0;
+        for (long salary : salaries) total += calculator.calculateTotalDeductions(salary);
+        return total;
+    }
+
+    // Deductions for every employee, one table at a time
+    @Benchmark
+    public long[] deductionsBulk() {
+        calculator.calculateTotalDeductions(salaries, totals);
+        return totals;
+    }
+
+    // Payroll for every employee over the last 30 days
+    @Benchmark
+    public int payrollRun() {
+        return payrollRun.run(lastDay - 29, lastDay).size();
+    }
+
+    @Benchmark
+    public long rollupSequential() {
+        return aggregator.aggregateSequential(lastDay - 29, lastDay).company.minutesWorked;
+    }
+
+    @Benchmark
+    public long rollupForkJoin() {
+        return aggregator.aggregate(lastDay - 29, lastDay).company.minutesWorked;
+    }
+}
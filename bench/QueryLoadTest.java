@@ -0,0 +1,75 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.net.URI;                  // Request addresses
+import java.net.URLEncoder;           // Query parameter encoding
+import java.net.http.HttpClient;      // Load test client
+import java.net.http.HttpRequest;     // Load test requests
+import java.net.http.HttpResponse;    // Load test responses
+import java.nio.charset.StandardCharsets; // Character sets
+import java.util.*;                   // Collections and utilities
+import java.util.concurrent.ExecutorService; // Task executors
+import java.util.concurrent.TimeUnit;  // Reload intervals
+import java.util.concurrent.atomic.AtomicInteger; // Shared counters
+
+// Fires concurrent GET requests at a running QueryServer and reports throughput and latency
+public class QueryLoadTest {
+    // Usage: QueryLoadTest [base url] [requests] [concurrency], against a running server; employee
+    // numbers come from the default data directory
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+        String employeesPath = DataLoader.dataFile(DataLoader.DATA_DIRECTORY, DataLoader.EMPLOYEES_FILE);
+        run(baseUrl, new ArrayList<>(DataLoader.loadEmployees(employeesPath).keySet()), requests, concurrency);
+    }
+
+    // Send the given number of requests with the given concurrency, using random employees
+    public static void run(String baseUrl, List<String> employeeNumbers, int requests, int concurrency) throws Exception {
+        ExecutorService clientThreads = QueryServer.threadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder().executor(clientThreads).build();
+        String[] paths = {"/employee?id=%s", "/hours?id=%s&start=06/01/2024&end=06/30/2024",
+            "/gross?id=%s&start=06/01/2024&end=06/30/2024", "/net?id=%s"};
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        ExecutorService workers = QueryServer.threadPerTaskExecutor();
+        try {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    Random random = new Random();
+                    for (int i; (i = next.getAndIncrement()) < requests; ) {
+                        String id = employeeNumbers.get(random.nextInt(employeeNumbers.size()));
+                        String path = String.format(paths[i % paths.length], URLEncoder.encode(id, StandardCharsets.UTF_8));
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = client.send(
+                                HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                                HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() != 200) failures.incrementAndGet();
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                    return null;
+                });
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);  // Wait for every worker
+            clientThreads.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests, %d concurrent, %d failed%n", requests, concurrency, failures.get());
+        System.out.printf("Throughput: %.1f requests/s%n", requests * 1e9 / elapsed);
+        System.out.printf("Latency ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+            latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.9)] / 1e6,
+            latencies[(int) (requests * 0.99)] / 1e6, latencies[requests - 1] / 1e6);
+    }
+}
@@ -0,0 +1,101 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.BufferedWriter;       // Buffered file writing
+import java.io.FileWriter;            // File output
+import java.io.IOException;           // Input/output exceptions
+import java.io.InputStream;           // Byte streams
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.nio.file.Paths;           // File path factory
+import java.nio.file.StandardCopyOption; // File copy options
+import java.util.*;                   // Collections and utilities
+
+// Writes employee and attendance CSVs in the MotorPH layout at any scale, for benchmarks
+public class SyntheticDataGenerator {
+    static final String[] LAST_NAMES = {"Garcia", "Lim", "Aquino", "Reyes", "Hernandez", "Villanueva",
+        "San Jose", "Romualdez", "Atienza", "Alvaro", "Salcedo", "Lopez", "Farala", "Martinez", "Romero"};
+    static final String[] FIRST_NAMES = {"Manuel III", "Antonio", "Bianca Sofia", "Isabella", "Eduard",
+        "Andrea Mae", "Brad", "Alice", "Rosie", "Roderick", "Anthony", "Josie", "Martha", "Leila", "Fredrick"};
+    static final String[] POSITIONS = {"Account Rank and File", "Sales & Marketing", "Supply Chain and Logistics",
+        "Customer Service and Relations", "HR Rank and File", "Payroll Rank and File", "Account Manager"};
+
+    // Usage: SyntheticDataGenerator <output directory> [employees] [years]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticDataGenerator <output directory> [employees, default 10000] [years, default 5]");
+            return;
+        }
+        int employeeCount = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int years = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        generate(args[0], employeeCount, years);
+        System.out.println("Wrote " + employeeCount + " employees and " + years + " years of attendance to " + args[0]);
+    }
+
+    // Write both files for employees numbered from 10001, one punch per weekday over the given years,
+    // and a copy of the rates
+    public static void generate(String directory, int employeeCount, int years) throws IOException {
+        Files.createDirectories(Paths.get(directory));
+        Random random = new Random(7);  // Same data on every run
+        int[] salaries = new int[employeeCount];
+
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(DataLoader.dataFile(directory, DataLoader.EMPLOYEES_FILE)))) {
+            out.write("Employee #,Last Name,First Name,Birthday,Address,Phone Number,SSS #,Philhealth #,TIN #,"
+                + "Pag-ibig #,Status,Position,Immediate Supervisor,Basic Salary,Rice Subsidy,Phone Allowance,"
+                + "Clothing Allowance,Gross Semi-monthly Rate,Hourly Rate\r\n");
+            for (int i = 0; i < employeeCount; i++) {
+                int salary = 20000 + random.nextInt(80) * 1000;
+                salaries[i] = salary;
+                String supervisor = i == 0 ? "N/A" : "\"" + LAST_NAMES[(i / 10) % LAST_NAMES.length] + ", "
+                    + FIRST_NAMES[(i / 10) % FIRST_NAMES.length] + "\"";
+                out.write((10001 + i) + "," + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + ","
+                    + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + ","
+                    + TimeCodec.formatDate(TimeCodec.epochDay(1960 + random.nextInt(40), 1 + random.nextInt(12), 1 + random.nextInt(28)))
+                    + ",\"" + (100 + random.nextInt(900)) + " Rizal Street, Block " + random.nextInt(50) + ", Makati City\","
+                    + "966-860-" + (100 + random.nextInt(900)) + ",44-4506057-3,820126853951,442-605-657-000,691295330870,"
+                    + (random.nextInt(5) == 0 ? "Probationary" : "Regular") + ","
+                    + POSITIONS[random.nextInt(POSITIONS.length)] + "," + supervisor + ","
+                    + thousands(salary) + ",\"1,500\",\"1,000\",\"1,000\"," + thousands(salary / 2) + ","
+                    + String.format("%.2f", salary / 168.0) + "\r\n");
+            }
+        }
+
+        int endDay = TimeCodec.epochDay(2024, 12, 31);
+        int startDay = endDay - years * 365 + 1;
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(DataLoader.dataFile(directory, DataLoader.ATTENDANCE_FILE)), 1 << 16)) {
+            out.write("Employee #,Last Name,First Name,Date,Log In,Log Out\r\n");
+            for (int day = startDay; day <= endDay; day++) {
+                if (Math.floorMod(day + 3, 7) >= 5) continue;  // Skip Saturday and Sunday
+                String date = TimeCodec.formatDate(day);
+                for (int i = 0; i < employeeCount; i++) {
+                    int logIn = 7 * 60 + 30 + random.nextInt(90);    // 7:30 to 8:59
+                    int logOut = 16 * 60 + 30 + random.nextInt(150); // 16:30 to 18:59
+                    out.write((10001 + i) + ",Last,First," + date + "," + time(logIn) + "," + time(logOut) + "\r\n");
+                }
+            }
+        }
+
+        // Rates to pay them with, so the directory is complete on its own: the rates file in use, else
+        // the copy bundled with the benchmarks
+        Path target = Paths.get(DataLoader.dataFile(directory, DataLoader.RATES_FILE));
+        Path rates = Paths.get(ContributionTables.ratesPath());
+        if (Files.exists(rates)) {
+            Files.copy(rates, target, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            try (InputStream bundled = SyntheticDataGenerator.class.getResourceAsStream("/" + DataLoader.RATES_FILE)) {
+                if (bundled != null) Files.copy(bundled, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    // Quoted number with thousands separators, as in the source export
+    private static String thousands(int amount) {
+        return String.format("\"%,d\"", amount);
+    }
+
+    // H:mm text for a minute of day
+    private static String time(int minuteOfDay) {
+        int minutes = minuteOfDay % 60;
+        return (minuteOfDay / 60) + (minutes < 10 ? ":0" : ":") + minutes;
+    }
+}
@@ -0,0 +1,14 @@
+package revisedms2;
+
+// Runs every test class; exits non-zero if any check fails
+public class AllTests {
+    public static void main(String[] args) throws Exception {
+        BracketTableTest.run();
+        CentavosTest.run();
+        AttendanceRecordTest.run();
+        AttendanceWatermarkTest.run();
+        ExternalPayrollRunTest.run();
+        AttendancePartitionsTest.run();
+        Check.finish();
+    }
+}
@@ -0,0 +1,179 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.io.UncheckedIOException;  // Input/output errors inside tasks
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.nio.file.StandardOpenOption; // File open options
+import java.util.*;                   // Collections and utilities
+
+// Monthly partitions: the manifest, queries within and across months matching a full load,
+// appends merged into their months, a changed prefix rebuilt, the row-bounded month cache, and
+// split days read back from disk
+public class AttendancePartitionsTest {
+    static final String HEADER = "Employee #,Last Name,First Name,Date,Log In,Log Out\n";
+    static final int MAY_30 = TimeCodec.epochDay(2024, 5, 30);
+    static final int JUNE_1 = TimeCodec.epochDay(2024, 6, 1);
+    static final int JUNE_30 = TimeCodec.epochDay(2024, 6, 30);
+    static final int JULY_2 = TimeCodec.epochDay(2024, 7, 2);
+    static final String[] EMPLOYEES = {"10001", "10002", "10003", "10004"};
+
+    public static void main(String[] args) throws Exception {
+        run();
+        Check.finish();
+    }
+
+    static void run() throws IOException {
+        Path directory = Files.createTempDirectory("partitions-test");
+        Path csv = directory.resolve("attendance.csv");
+        Path partitionDirectory = directory.resolve("partitions");
+        try {
+            check(csv, partitionDirectory);
+            for (int singles = 0; singles <= 4; singles++) multiPunchRoundTrip(csv, partitionDirectory, singles);
+        } finally {
+            for (Path root : List.of(partitionDirectory, directory)) {
+                if (!Files.exists(root)) continue;
+                try (var files = Files.list(root)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        if (!Files.isDirectory(file)) Files.delete(file);
+                    }
+                }
+            }
+            Files.delete(partitionDirectory);
+            Files.delete(directory);
+        }
+    }
+
+    static void check(Path csv, Path partitionDirectory) throws IOException {
+        // Three employees every day from May 30 to July 2, a fourth only in mid-June
+        StringBuilder text = new StringBuilder(HEADER);
+        for (int day = MAY_30; day <= JULY_2; day++) {
+            for (int e = 0; e < 3; e++) text.append(row(EMPLOYEES[e], day, 8 * 60, 16 * 60 + e * 10 + day % 7));
+        }
+        for (int day = JUNE_1 + 9; day <= JUNE_1 + 11; day++) text.append(row("10004", day, 9 * 60, 18 * 60));
+        Files.writeString(csv, text, StandardCharsets.UTF_8);
+        String path = csv.toString(), directory = partitionDirectory.toString();
+
+        AttendancePartitions partitions = AttendancePartitions.build(directory, path);
+        Check.equal(3, partitions.monthCount(), "months");
+        Check.equal(6 + 93 + 6, partitions.rowCount(), "rows");
+        List<String> manifest = Files.readAllLines(partitionDirectory.resolve(AttendancePartitions.MANIFEST_FILE));
+        Check.equal(List.of(
+            "Month,File,Rows,First Day,Last Day,First Employee,Last Employee",
+            "2024-05,2024-05.part,6,05/30/2024,05/31/2024,10001,10003",
+            "2024-06,2024-06.part,93,06/01/2024,06/30/2024,10001,10004",
+            "2024-07,2024-07.part,6,07/01/2024,07/02/2024,10001,10003"), manifest, "manifest");
+
+        // A query inside one month reads only that month, once
+        long loads = Metrics.PARTITION_LOADS.sum();
+        AttendanceRecord june = partitions.covering("10002", JUNE_1 + 3, JUNE_1 + 5);
+        Check.isTrue(june == partitions.covering(null, JUNE_1, JUNE_30), "one month is shared as read");
+        Check.equal(1, Metrics.PARTITION_LOADS.sum() - loads, "June read once");
+        Check.equal(0, partitions.covering("10004", MAY_30, MAY_30 + 1).size(), "10004 has no May rows");
+        Check.equal(0, partitions.covering("10001", JUNE_30, JUNE_1).size(), "empty range");
+        matchesFullLoad(partitions, path, "after build");
+
+        // Nothing appended: the same partitions come back
+        Check.isTrue(partitions.update() == partitions, "no change keeps the partitions");
+
+        // Appends: a new day in July and a second pair on a June day
+        Files.writeString(csv, row("10004", JULY_2 + 1, 8 * 60, 12 * 60) + row("10001", JUNE_1, 18 * 60, 20 * 60),
+            StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        AttendancePartitions updated = partitions.update();
+        Check.isTrue(updated != partitions, "append makes new partitions");
+        Check.equal(1, updated.rowsAdded, "one new (employee, day) row");
+        Check.equal(6 + 93 + 7, updated.rowCount(), "rows after the append");
+        Check.isTrue(updated.changedInRange("10001", JUNE_1, JUNE_1), "10001 changed on June 1");
+        Check.isTrue(updated.changedInRange("10004", JULY_2 + 1, JULY_2 + 1), "10004 changed on July 3");
+        Check.isTrue(!updated.changedInRange("10002", MAY_30, JULY_2), "10002 unchanged");
+        Check.isTrue(!updated.changedInRange("10001", MAY_30, MAY_30 + 1), "10001 unchanged in May");
+        Check.equal(480 + JUNE_1 % 7 + 120,
+            updated.covering("10001", JUNE_1, JUNE_1).minutesInRange("10001", JUNE_1, JUNE_1), "second pair on June 1");
+        matchesFullLoad(updated, path, "after the append");
+
+        // Reopened from disk, nothing to read
+        AttendancePartitions reopened = AttendancePartitions.open(directory, path);
+        Check.equal(0, reopened.rowsAdded, "reopen reads no rows");
+        Check.isTrue(reopened.changes == null, "reopen does not know what changed");
+        matchesFullLoad(reopened, path, "after reopening");
+
+        // The file cut back to June: start over, dropping the other months' files
+        StringBuilder juneOnly = new StringBuilder(HEADER);
+        for (String line : Files.readAllLines(csv)) {
+            if (line.contains(",06/")) juneOnly.append(line).append('\n');
+        }
+        Files.writeString(csv, juneOnly, StandardCharsets.UTF_8);
+        AttendancePartitions rebuilt = reopened.update();
+        Check.equal(1, rebuilt.monthCount(), "months after starting over");
+        Check.equal(-13, rebuilt.rowsAdded, "rows dropped with May and July");
+        Check.isTrue(rebuilt.changedInRange("10002", MAY_30, MAY_30), "start over marks everything changed");
+        Check.isTrue(!Files.exists(partitionDirectory.resolve("2024-05.part")), "May file deleted");
+        Check.isTrue(!Files.exists(partitionDirectory.resolve("2024-07.part")), "July file deleted");
+        matchesFullLoad(rebuilt, path, "after starting over");
+
+        // A cache bounded to one month's rows evicts the least recently used month
+        Files.writeString(csv, text, StandardCharsets.UTF_8);
+        AttendancePartitions bounded = rebuilt.update();
+        bounded.maxCachedRows = 93;
+        loads = Metrics.PARTITION_LOADS.sum();
+        long evictions = Metrics.PARTITION_EVICTIONS.sum();
+        bounded.covering(null, MAY_30, MAY_30);
+        bounded.covering(null, JUNE_1, JUNE_1);
+        bounded.covering(null, MAY_30, MAY_30);
+        Check.equal(3, Metrics.PARTITION_LOADS.sum() - loads, "May read again after June pushed it out");
+        Check.isTrue(Metrics.PARTITION_EVICTIONS.sum() - evictions >= 2, "months evicted");
+        Check.isTrue(bounded.cachedRows <= 93, "cached rows within the bound");
+    }
+
+    // A month with one split day and some single-pair days, read back from disk after reopening,
+    // for odd and even lengths of the pairs section
+    static void multiPunchRoundTrip(Path csv, Path partitionDirectory, int singles) throws IOException {
+        StringBuilder text = new StringBuilder(HEADER);
+        text.append(row("10001", JUNE_1, 8 * 60, 12 * 60)).append(row("10001", JUNE_1, 13 * 60, 17 * 60));
+        for (int d = 1; d <= singles; d++) text.append(row("10002", JUNE_1 + d, 9 * 60, 17 * 60 + d));
+        Files.writeString(csv, text, StandardCharsets.UTF_8);
+        String path = csv.toString(), directory = partitionDirectory.toString();
+        AttendancePartitions.build(directory, path);
+        AttendancePartitions reopened = AttendancePartitions.open(directory, path);  // Nothing cached
+        String what = "partition with " + singles + " single days";
+        try {
+            AttendanceRecord june = reopened.covering(null, JUNE_1, JUNE_30);
+            Check.equal(1 + singles, june.size(), what + ": rows");
+            Check.equal(480, june.minutesInRange("10001", JUNE_1, JUNE_30), what + ": split day");
+            Check.equal(480L * singles + singles * (singles + 1) / 2, june.minutesInRange("10002", JUNE_1, JUNE_30),
+                what + ": single days");
+            Check.equal(1, june.headcount(JUNE_1 + singles), what + ": headcount on the last day");
+        } catch (UncheckedIOException e) {
+            Check.isTrue(false, what + ": " + e.getMessage());
+        }
+    }
+
+    // Every employee's minutes over several ranges match a full load of the CSV
+    static void matchesFullLoad(AttendancePartitions partitions, String path, String when) throws IOException {
+        AttendanceRecord full = new AttendanceRecord();
+        DataLoader.ingestAppendedAttendance(full, path, null);
+        int[][] ranges = {{MAY_30, JULY_2 + 1}, {MAY_30 + 1, JUNE_1}, {JUNE_1 + 4, JUNE_1 + 10}, {JUNE_30, JULY_2}, {JUNE_1, JUNE_30}};
+        for (String empNumber : EMPLOYEES) {
+            for (int[] range : ranges) {
+                AttendanceRecord covering = partitions.covering(empNumber, range[0], range[1]);
+                Check.equal(full.minutesInRange(empNumber, range[0], range[1]),
+                    covering.minutesInRange(empNumber, range[0], range[1]),
+                    empNumber + " from " + TimeCodec.formatDate(range[0]) + " to " + TimeCodec.formatDate(range[1]) + " " + when);
+            }
+        }
+        AttendanceRecord all = partitions.covering(null, MAY_30, JULY_2 + 1);
+        Check.equal(full.size(), all.size(), "rows of every month " + when);
+    }
+
+    // One CSV line
+    static String row(String empNumber, int day, int logIn, int logOut) {
+        return empNumber + ",Doe,Juan," + TimeCodec.formatDate(day) + "," + time(logIn) + "," + time(logOut) + "\n";
+    }
+
+    // H:mm for a minute of the day
+    static String time(int minute) {
+        return minute / 60 + ":" + (minute % 60 < 10 ? "0" : "") + minute % 60;
+    }
+}
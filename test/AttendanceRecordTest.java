@@ -0,0 +1,173 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.util.*;                   // Collections and utilities
+
+// Days punched more than once: every pair is kept, overlaps are counted once, one bad pair voids the
+// day, and the pairs survive a snapshot round trip
+public class AttendanceRecordTest {
+    static final int MONDAY = TimeCodec.epochDay(2024, 6, 3);
+
+    public static void main(String[] args) throws Exception {
+        run();
+        Check.finish();
+    }
+
+    static void run() throws IOException {
+        // Split shift: two disjoint pairs, loaded latest first
+        AttendanceRecord record = new AttendanceRecord();
+        record.addAttendance("10001", MONDAY, at(13, 0), at(17, 0));
+        record.addAttendance("10002", MONDAY, at(9, 0), at(18, 0));
+        record.addAttendance("10001", MONDAY, at(8, 0), at(12, 0));
+        Check.equal(2, record.size(), "one row per employee and day");
+        int row = onlyRow(record, "10001", MONDAY);
+        Check.equal(480, record.minutesWorkedAt(row), "split shift minutes");
+        Check.equal(2, record.pairCountAt(row), "split shift pairs");
+        Check.equal(at(8, 0), record.logInAt(row), "first log-in of the day");
+        Check.equal(at(17, 0), record.logOutAt(row), "last log-out of the day");
+        int[] starts = new int[4], ends = new int[4];
+        Check.equal(2, record.mergedIntervalsAt(row, starts, ends), "split shift intervals");
+        Check.equal(at(8, 0), starts[0], "first interval start");
+        Check.equal(at(12, 0), ends[0], "first interval end");
+        Check.equal(at(13, 0), starts[1], "second interval start");
+        Check.equal(at(17, 0), ends[1], "second interval end");
+        Check.equal(480, record.minutesInRange("10001", MONDAY, MONDAY), "split shift prefix sum");
+        Check.equal(540, record.minutesInRange("10002", MONDAY, MONDAY), "other employee untouched");
+
+        // Overlapping and touching pairs merge
+        Check.equal(300, minutesOf(at(8, 0), at(12, 0), at(11, 0), at(13, 0)), "overlapping pairs");
+        Check.equal(300, minutesOf(at(8, 0), at(12, 0), at(12, 0), at(13, 0)), "touching pairs");
+        Check.equal(540, minutesOf(at(8, 0), at(17, 0), at(10, 0), at(11, 0)), "pair inside another");
+        record = recordOf(at(8, 0), at(12, 0), at(11, 0), at(13, 0));
+        row = onlyRow(record, "1", MONDAY);
+        Check.equal(1, record.mergedIntervalsAt(row, starts, ends), "overlap merges to one interval");
+        Check.equal(at(13, 0), ends[0], "merged interval end");
+
+        // Repeats collapse back to a single pair
+        record = recordOf(at(8, 0), at(17, 0), at(8, 0), at(17, 0));
+        row = onlyRow(record, "1", MONDAY);
+        Check.equal(1, record.pairCountAt(row), "repeated pair");
+        Check.equal(540, record.minutesWorkedAt(row), "repeated pair minutes");
+
+        // A log-in row later closed by a full row with the same log-in
+        record = recordOf(at(8, 0), TimeCodec.NO_TIME, at(8, 0), at(17, 0));
+        row = onlyRow(record, "1", MONDAY);
+        Check.equal(1, record.pairCountAt(row), "open pair closed later");
+        Check.equal(PunchStatus.VALID, record.statusAt(row), "closed pair status");
+        Check.equal(540, record.minutesWorkedAt(row), "closed pair minutes");
+
+        // Night shift past midnight plus an evening pair
+        Check.equal(300, minutesOf(at(22, 0), at(2, 0), at(20, 0), at(21, 0)), "pair past midnight");
+        record = recordOf(at(22, 0), at(2, 0), at(20, 0), at(21, 0));
+        row = onlyRow(record, "1", MONDAY);
+        Check.equal(2, record.mergedIntervalsAt(row, starts, ends), "intervals past midnight");
+        Check.equal(TimeCodec.MINUTES_PER_DAY + at(2, 0), ends[1], "end past midnight");
+        Check.equal(at(2, 0), record.logOutAt(row), "last log-out past midnight");
+
+        // One unusable pair voids the day
+        record = recordOf(at(8, 0), at(12, 0), at(13, 0), TimeCodec.NO_TIME);
+        row = onlyRow(record, "1", MONDAY);
+        Check.equal(PunchStatus.MISSING_LOG_OUT, record.statusAt(row), "missing log-out in second pair");
+        Check.equal(0, record.minutesWorkedAt(row), "voided day minutes");
+        Check.equal(-1, record.mergedIntervalsAt(row, starts, ends), "voided day intervals");
+        Check.equal(0, record.minutesInRange("1", MONDAY, MONDAY), "voided day prefix sum");
+        Check.equal(0, record.headcount(MONDAY), "voided day headcount");
+
+        // A pair added after sorting joins the day already stored
+        record = new AttendanceRecord();
+        record.addAttendance("1", MONDAY, at(8, 0), at(12, 0));
+        record.addAttendance("1", MONDAY + 1, at(8, 0), at(16, 0));
+        Check.equal(720, record.minutesInRange("1", MONDAY, MONDAY + 1), "two days before the late pair");
+        record.addAttendance("1", MONDAY, at(13, 0), at(17, 0));
+        record.addAttendance("1", MONDAY, at(8, 0), at(12, 0));
+        Check.equal(2, record.size(), "late pair joins its day");
+        row = onlyRow(record, "1", MONDAY);
+        Check.equal(2, record.pairCountAt(row), "pairs after the late pair");
+        Check.equal(480, record.minutesWorkedAt(row), "minutes after the late pair");
+        Check.equal(960, record.minutesInRange("1", MONDAY, MONDAY + 1), "two days after the late pair");
+        Check.equal(1, record.headcount(MONDAY), "headcount after the late pair");
+
+        // The settling used on loaded rows agrees, whatever the order
+        int[] pairs = {
+            AttendanceRecord.pack(at(13, 0), at(17, 0)), AttendanceRecord.pack(at(8, 0), at(12, 0)),
+            AttendanceRecord.pack(at(8, 0), at(12, 0)), AttendanceRecord.pack(at(11, 30), at(12, 30))};
+        Check.equal(510, AttendanceRecord.dayMinutes(pairs, 0, pairs.length), "day minutes from packed pairs");
+        Check.equal(0, AttendanceRecord.pairMinutes(at(8, 0), TimeCodec.NO_TIME), "pair without log-out");
+        Check.equal(0, AttendanceRecord.pairMinutes(at(8, 0), at(7, 0)), "log-out too long before log-in");
+
+        // Snapshots with a day punched more than once, for odd and even lengths of the pairs section
+        for (int singles = 0; singles <= 4; singles++) snapshotRoundTrip(singles);
+    }
+
+    // Write and load a snapshot holding one split day and some single-pair days after it
+    static void snapshotRoundTrip(int singles) throws IOException {
+        AttendanceRecord record = new AttendanceRecord();
+        record.addAttendance("10001", MONDAY, at(8, 0), at(12, 0));
+        record.addAttendance("10001", MONDAY, at(13, 0), at(17, 0));
+        for (int d = 1; d <= singles; d++) record.addAttendance("10002", MONDAY + d, at(9, 0), at(17, 0) + d);
+        Map<String, Employee> employees = new LinkedHashMap<>();
+        employees.put("10001", new Employee("10001", "Manuel III Garcia", "10/11/1983", 90000, 535.71));
+        employees.put("10002", new Employee("10002", "Antonio Lim", "06/19/1988", 60000, 357.14));
+
+        Path directory = Files.createTempDirectory("snapshot-test");
+        Path employeesFile = Files.writeString(directory.resolve("employees.csv"), "unused\n");
+        Path attendanceFile = Files.writeString(directory.resolve("attendance.csv"), "unused\n");
+        Path snapshotFile = directory.resolve("motorph.snapshot");
+        String what = "snapshot with " + singles + " single days";
+        try {
+            SnapshotStore store = new SnapshotStore(snapshotFile.toString(), employeesFile.toString(), attendanceFile.toString());
+            store.write(new PayrollData(employees, record), new AttendanceWatermark());
+            PayrollData data = store.load();
+            Check.isTrue(data != null, what + " loads");
+            if (data == null) return;
+            AttendanceRecord loaded = data.attendance;
+            Check.equal(record.size(), loaded.size(), what + ": rows");
+            for (int row = 0; row < record.size(); row++) {
+                Check.equal(record.minutesWorkedAt(row), loaded.minutesWorkedAt(row), what + ": minutes of row " + row);
+                Check.equal(record.pairCountAt(row), loaded.pairCountAt(row), what + ": pairs of row " + row);
+                Check.equal(record.statusAt(row), loaded.statusAt(row), what + ": status of row " + row);
+            }
+            Check.equal(480, loaded.minutesInRange("10001", MONDAY, MONDAY + 4), what + ": split day prefix sum");
+            Check.equal(480L * singles + singles * (singles + 1) / 2, loaded.minutesInRange("10002", MONDAY, MONDAY + 4),
+                what + ": single days prefix sum");
+            for (int day = MONDAY; day <= MONDAY + singles; day++) {
+                Check.equal(1, loaded.headcount(day), what + ": headcount on day " + (day - MONDAY));
+            }
+        } finally {
+            for (Path file : List.of(snapshotFile, employeesFile, attendanceFile)) Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
+
+    // Minute of the day
+    static int at(int hour, int minute) {
+        return hour * 60 + minute;
+    }
+
+    // Record with two pairs on MONDAY for employee 1
+    static AttendanceRecord recordOf(int logIn1, int logOut1, int logIn2, int logOut2) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.addAttendance("1", MONDAY, logIn1, logOut1);
+        record.addAttendance("1", MONDAY, logIn2, logOut2);
+        return record;
+    }
+
+    // Minutes worked on MONDAY from two pairs, checked in both load orders
+    static int minutesOf(int logIn1, int logOut1, int logIn2, int logOut2) {
+        AttendanceRecord forward = recordOf(logIn1, logOut1, logIn2, logOut2);
+        AttendanceRecord backward = recordOf(logIn2, logOut2, logIn1, logOut1);
+        int minutes = forward.minutesWorkedAt(onlyRow(forward, "1", MONDAY));
+        Check.equal(minutes, backward.minutesWorkedAt(onlyRow(backward, "1", MONDAY)), "load order does not matter");
+        return minutes;
+    }
+
+    // The single row of an employee on a day
+    static int onlyRow(AttendanceRecord record, String empNumber, int day) {
+        AttendanceRange range = record.getAttendanceInRange(empNumber, day, day, new AttendanceRange());
+        Check.equal(1, range.to - range.from, "rows for " + empNumber + " on one day");
+        return range.from;
+    }
+}
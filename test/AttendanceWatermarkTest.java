@@ -0,0 +1,157 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.IOException;           // Input/output exceptions
+import java.nio.channels.FileChannel; // File channels
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.nio.file.StandardOpenOption; // File open options
+
+// Incremental attendance ingest: appended rows are read once, a partial last line waits, and a
+// changed prefix, a shorter file or a lost sidecar reloads in full without duplicating rows
+public class AttendanceWatermarkTest {
+    static final String HEADER = "Employee #,Last Name,First Name,Date,Log In,Log Out\n";
+    static final int JUNE_3 = TimeCodec.epochDay(2024, 6, 3);
+
+    public static void main(String[] args) throws Exception {
+        run();
+        Check.finish();
+    }
+
+    static void run() throws IOException {
+        Path directory = Files.createTempDirectory("watermark-test");
+        try {
+            appendsAndEdits(directory.resolve("attendance.csv"));
+            largeFile(directory.resolve("large.csv"));
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    // Small file: appends, a partial line, a second pair, edits, truncation and a lost sidecar
+    static void appendsAndEdits(Path csv) throws IOException {
+        String path = csv.toString();
+        write(csv, HEADER + row("10001", 3, "8:00", "17:00") + row("10002", 3, "9:00", "18:00"));
+        AttendanceRecord attendance = new AttendanceRecord();
+        AttendanceWatermark watermark = DataLoader.loadAttendanceParallel(attendance, path);
+        Check.equal(Files.size(csv), watermark.offset, "full load reads to the end");
+        Check.equal(2, attendance.size(), "rows after full load");
+        AttendanceWatermark saved = AttendanceWatermark.read(path);
+        Check.isTrue(saved != null, "sidecar written");
+        Check.equal(watermark.offset, saved.offset, "sidecar offset");
+        Check.equal(watermark.checksum, saved.checksum, "sidecar checksum");
+        Check.equal(watermark.prefixChecksum, saved.prefixChecksum, "sidecar prefix checksum");
+
+        // Nothing appended
+        Check.equal(0, DataLoader.ingestAppendedAttendance(attendance, path), "no new rows");
+        Check.equal(2, attendance.size(), "rows unchanged");
+
+        // One full row and a line still being written, cut off with all six fields present
+        String partial = "10003,Aquino,Bianca Sofia,06/03/2024,8:00,16:";
+        append(csv, row("10001", 4, "8:00", "12:00") + partial);
+        long complete = Files.size(csv) - partial.length();
+        Check.equal(1, DataLoader.ingestAppendedAttendance(attendance, path), "one appended row");
+        Check.equal(complete, AttendanceWatermark.read(path).offset, "watermark stops before the partial line");
+        Check.equal(780, attendance.minutesInRange("10001", JUNE_3, JUNE_3 + 1), "10001 after the append");
+        Check.equal(0, attendance.minutesInRange("10003", JUNE_3, JUNE_3), "partial line not read");
+        AttendanceRecord fresh = new AttendanceRecord();
+        Check.equal(complete, DataLoader.loadAttendanceParallel(fresh, path).offset, "full load stops before the partial line");
+        Check.equal(3, fresh.size(), "full load leaves the partial line");
+
+        // The partial line completes, and a second pair lands on a day already stored
+        append(csv, "00\n" + row("10001", 4, "13:00", "17:00"));
+        Check.equal(1, DataLoader.ingestAppendedAttendance(attendance, path), "completed line adds one row");
+        Check.equal(480, attendance.minutesInRange("10003", JUNE_3, JUNE_3), "10003 from the completed line");
+        AttendanceRange range = attendance.getAttendanceInRange("10003", JUNE_3, JUNE_3, new AttendanceRange());
+        Check.equal(1, range.size(), "10003 has one row");
+        Check.equal(1, attendance.pairCountAt(range.from), "completed line is one pair");
+        Check.equal(PunchStatus.VALID, attendance.statusAt(range.from), "completed line is usable");
+        Check.equal(1020, attendance.minutesInRange("10001", JUNE_3, JUNE_3 + 1), "second pair joins its day");
+        Check.equal(Files.size(csv), AttendanceWatermark.read(path).offset, "watermark at the end");
+
+        // An earlier row edited in place, same length: full reload, no duplicates
+        String text = Files.readString(csv).replace(row("10002", 3, "9:00", "18:00"), row("10002", 3, "9:00", "19:00"));
+        write(csv, text);
+        Check.equal(0, DataLoader.ingestAppendedAttendance(attendance, path), "edit keeps the row count");
+        Check.equal(4, attendance.size(), "rows after the edit");
+        Check.equal(600, attendance.minutesInRange("10002", JUNE_3, JUNE_3), "edited row read again");
+        Check.equal(1020, attendance.minutesInRange("10001", JUNE_3, JUNE_3 + 1), "other rows not doubled");
+
+        // The file cut back to its first row
+        write(csv, HEADER + row("10001", 3, "8:00", "17:00"));
+        Check.equal(-3, DataLoader.ingestAppendedAttendance(attendance, path), "shorter file drops rows");
+        Check.equal(540, attendance.minutesInRange("10001", JUNE_3, JUNE_3 + 1), "only the first row remains");
+
+        // A lost or unreadable sidecar reloads in full
+        Files.writeString(Path.of(AttendanceWatermark.sidecarPath(path)), "offset=garbage\n");
+        Check.isTrue(AttendanceWatermark.read(path) == null, "unreadable sidecar");
+        Check.equal(0, DataLoader.ingestAppendedAttendance(attendance, path), "reload after a lost sidecar");
+        Check.equal(540, attendance.minutesInRange("10001", JUNE_3, JUNE_3 + 1), "no duplicates after a lost sidecar");
+
+        // A caller keeping its own watermark leaves the sidecar alone
+        AttendanceWatermark before = AttendanceWatermark.read(path);
+        append(csv, row("10002", 5, "8:00", "9:00"));
+        AttendanceWatermark kept = DataLoader.ingestAppendedAttendance(attendance, path, before);
+        Check.equal(Files.size(csv), kept.offset, "returned watermark at the end");
+        Check.equal(before.offset, AttendanceWatermark.read(path).offset, "sidecar not moved");
+        Check.equal(60, attendance.minutesInRange("10002", JUNE_3, JUNE_3 + 2), "appended row read");
+        Check.equal(540, attendance.minutesInRange("10001", JUNE_3, JUNE_3 + 2), "tail read only");
+    }
+
+    // File past the checksum window: an edit far before the end is found through the samples
+    static void largeFile(Path csv) throws IOException {
+        String path = csv.toString();
+        StringBuilder text = new StringBuilder(HEADER);
+        int rows = 0;
+        while (text.length() < 4 * AttendanceWatermark.WINDOW_BYTES) {
+            text.append(row(String.valueOf(20000 + rows % 500), 3 + rows / 500, "8:00", "17:00"));
+            rows++;
+        }
+        write(csv, text.toString());
+        AttendanceRecord attendance = new AttendanceRecord();
+        AttendanceWatermark watermark = DataLoader.loadAttendanceParallel(attendance, path);
+        Check.equal(rows, attendance.size(), "rows in the large file");
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            Check.isTrue(watermark.matches(channel), "unchanged large file matches");
+        }
+
+        // Change one digit at the start of the middle sample, well before the last window
+        long end = watermark.offset - AttendanceWatermark.WINDOW_BYTES;
+        int at = (int) (end * (AttendanceWatermark.SAMPLES / 2) / AttendanceWatermark.SAMPLES);
+        int digit = text.indexOf("17:00", at) + 1;
+        text.setCharAt(digit, '8');
+        write(csv, text.toString());
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            Check.isTrue(!watermark.matches(channel), "edit in a sampled window is seen");
+        }
+        Check.isTrue(digit < at + AttendanceWatermark.SAMPLE_BYTES, "edit lies in the sample");
+        Check.equal(0, DataLoader.ingestAppendedAttendance(attendance, path), "large file reloaded");
+        Check.equal((long) rows * 540 + 60, totalMinutes(attendance, rows), "edited row counted once");
+    }
+
+    // Minutes of every employee in the large file
+    static long totalMinutes(AttendanceRecord attendance, int rows) {
+        long total = 0;
+        for (int e = 0; e < Math.min(rows, 500); e++) {
+            total += attendance.minutesInRange(String.valueOf(20000 + e), JUNE_3, JUNE_3 + rows / 500 + 1);
+        }
+        return total;
+    }
+
+    // One CSV line for a day in June 2024
+    static String row(String empNumber, int day, String logIn, String logOut) {
+        return empNumber + ",Doe,Juan,06/" + (day < 10 ? "0" : "") + day + "/2024," + logIn + "," + logOut + "\n";
+    }
+
+    static void write(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+    }
+
+    static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
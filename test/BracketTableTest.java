@@ -0,0 +1,86 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.FileReader;            // File handling
+import java.io.IOException;           // Input/output exceptions
+import java.io.Reader;                // Character streams
+import java.io.StringReader;          // Character streams over strings
+import java.nio.charset.StandardCharsets; // Character sets
+
+// Contribution and tax tables from the shipped rates file, and the checks made while reading one
+public class BracketTableTest {
+    static final String HEADER = "Type,Name,Up To,Inclusive,Fixed,Rate,Over,Rounding\n";
+
+    public static void main(String[] args) throws Exception {
+        run();
+        Check.finish();
+    }
+
+    static void run() throws Exception {
+        ContributionTables tables;
+        try (Reader source = new FileReader("filestoberead/contribution_tables.csv", StandardCharsets.UTF_8)) {
+            tables = ContributionTables.load(source);
+        }
+        Check.equal(3, tables.deductions.size(), "deduction tables");
+        BracketTable sss = tables.deductions.get(0), philHealth = tables.deductions.get(1);
+        BracketTable pagIbig = tables.deductions.get(2), tax = tables.tax;
+        Check.equal("SSS", sss.name, "first table");
+
+        // SSS: flat amounts, limits exclusive
+        Check.equal(13500, sss.calculate(324999), "SSS just under 3250");
+        Check.equal(15750, sss.calculate(325000), "SSS at 3250");
+        Check.equal(112500, sss.calculate(9000000), "SSS open-ended");
+
+        // PhilHealth: 150 up to 10000 inclusive, then 1.5%, capped at 900
+        Check.equal(15000, philHealth.calculate(1000000), "PhilHealth at 10000");
+        Check.equal(37500, philHealth.calculate(2500000), "PhilHealth at 25000");
+        Check.equal(15002, philHealth.calculate(1000100), "PhilHealth at 10001, 150.015 half up");
+        Check.equal(90000, philHealth.calculate(6000000), "PhilHealth at 60000");
+
+        // Pag-IBIG: nothing under 1000, then 1% up to 1500 inclusive, then 2%
+        Check.equal(0, pagIbig.calculate(99999), "Pag-IBIG just under 1000");
+        Check.equal(1000, pagIbig.calculate(100000), "Pag-IBIG at 1000");
+        Check.equal(1500, pagIbig.calculate(150000), "Pag-IBIG at 1500");
+        Check.equal(180000, pagIbig.calculate(9000000), "Pag-IBIG at 90000");
+
+        // Withholding tax, limits inclusive
+        Check.equal(0, tax.calculate(2083200), "tax at 20832");
+        Check.equal(20, tax.calculate(2083400), "tax at 20834, 0.20 over 20833");
+        Check.equal(250000, tax.calculate(3333300), "tax at 33333");
+        Check.equal(250025, tax.calculate(3333400), "tax at 33334");
+        Check.equal(1668540, tax.calculate(8617500), "tax at 86175");
+        Check.equal(0, tax.bracketOf(2083200), "bracket of 20832");
+        Check.equal(1, tax.bracketOf(2083201), "bracket of 20832.01");
+        Check.equal(5, tax.bracketOf(Long.MAX_VALUE / 1_000_000), "bracket of a huge amount");
+
+        // The calculator sums the tables; the batch path matches one salary at a time
+        PayrollCalculator calculator = new PayrollCalculator(tables);
+        Check.equal(382500, calculator.calculateTotalDeductions(9000000), "deductions at 90000");
+        Check.equal(1668540, calculator.withholdingTax(9000000 - 382500), "tax after deductions at 90000");
+        long[] salaries = {0, 99999, 100000, 324999, 1000000, 1000100, 2500000, 3333400, 6000000, 9000000, 123456789};
+        long[] batch = new long[salaries.length];
+        calculator.calculateTotalDeductions(salaries, batch);
+        for (int i = 0; i < salaries.length; i++) {
+            Check.equal(calculator.calculateTotalDeductions(salaries[i]), batch[i], "batch deductions at " + salaries[i]);
+        }
+
+        // Malformed rates files are refused, never guessed around
+        Check.throwsException(IOException.class, () -> ContributionTables.load(new StringReader(HEADER
+            + "deduction,A,100,no,1,0,0\n"
+            + "tax,T,,,0,0,0\n")), "table without an open-ended row");
+        Check.throwsException(IOException.class, () -> ContributionTables.load(new StringReader(HEADER
+            + "deduction,A,100,no,1,0,0\n"
+            + "deduction,A,100,no,2,0,0\n"
+            + "deduction,A,,,3,0,0\n"
+            + "tax,T,,,0,0,0\n")), "limits that do not increase");
+        Check.throwsException(IOException.class, () -> ContributionTables.load(new StringReader(HEADER
+            + "deduction,A,,,3,0,0\n")), "no tax table");
+        Check.throwsException(IOException.class, () -> ContributionTables.load(new StringReader(HEADER
+            + "deduction,A,,,3,0,0,sideways\n"
+            + "tax,T,,,0,0,0\n")), "unknown rounding");
+        Check.throwsException(IOException.class, () -> ContributionTables.load(new StringReader(HEADER
+            + "deduction,A,100,no,1,0,0,half-up\n"
+            + "deduction,A,,,3,0,0,down\n"
+            + "tax,T,,,0,0,0\n")), "mixed rounding in one table");
+    }
+}
@@ -0,0 +1,72 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.ArrayList;           // Resizable lists
+
+// Centavo arithmetic: each rounding rule at halves and negatives, the reciprocal floor and formatting
+public class CentavosTest {
+    public static void main(String[] args) throws Exception {
+        run();
+        Check.finish();
+    }
+
+    static void run() {
+        // Half up rounds halves toward positive infinity
+        Check.equal(3, Centavos.divide(25, 10, Centavos.Rounding.HALF_UP), "half up 2.5");
+        Check.equal(2, Centavos.divide(24, 10, Centavos.Rounding.HALF_UP), "half up 2.4");
+        Check.equal(-2, Centavos.divide(-25, 10, Centavos.Rounding.HALF_UP), "half up -2.5");
+        Check.equal(-3, Centavos.divide(-26, 10, Centavos.Rounding.HALF_UP), "half up -2.6");
+
+        // Half even rounds halves to the even neighbour
+        Check.equal(2, Centavos.divide(25, 10, Centavos.Rounding.HALF_EVEN), "half even 2.5");
+        Check.equal(4, Centavos.divide(35, 10, Centavos.Rounding.HALF_EVEN), "half even 3.5");
+        Check.equal(3, Centavos.divide(26, 10, Centavos.Rounding.HALF_EVEN), "half even 2.6");
+        Check.equal(-2, Centavos.divide(-25, 10, Centavos.Rounding.HALF_EVEN), "half even -2.5");
+        Check.equal(-4, Centavos.divide(-35, 10, Centavos.Rounding.HALF_EVEN), "half even -3.5");
+
+        // Down drops the fraction toward zero
+        Check.equal(2, Centavos.divide(29, 10, Centavos.Rounding.DOWN), "down 2.9");
+        Check.equal(-2, Centavos.divide(-29, 10, Centavos.Rounding.DOWN), "down -2.9");
+
+        // 1.5% of 10003.00 is 150.045
+        long rate = Centavos.rate(0.015);
+        Check.equal(15000, rate, "rate of 1.5%");
+        Check.equal(15005, Centavos.applyRate(1000300, rate, Centavos.Rounding.HALF_UP), "150.045 half up");
+        Check.equal(15004, Centavos.applyRate(1000300, rate, Centavos.Rounding.HALF_EVEN), "150.045 half even");
+        Check.equal(15004, Centavos.applyRate(1000300, rate, Centavos.Rounding.DOWN), "150.045 down");
+
+        // Reciprocal floor matches Math.floorDiv, negatives included
+        Check.equal(-1, Centavos.floorMillionths(-1), "floor of -1 millionth");
+        Check.equal(0, Centavos.floorMillionths(999999), "floor just under one");
+        Check.equal(1, Centavos.floorMillionths(1000000), "floor of one");
+        Check.equal(-2, Centavos.floorMillionths(-1000001), "floor just under -1");
+        long[] samples = {0, 1, 499999, 500000, 123456789012L, -123456789012L, Long.MAX_VALUE / 2, -(Long.MAX_VALUE / 2)};
+        for (long sample : samples) {
+            Check.equal(Math.floorDiv(sample, Centavos.RATE_SCALE), Centavos.floorMillionths(sample), "floor of " + sample);
+        }
+
+        // Pay for 90 minutes at 535.71 an hour is 803.565, half up
+        ContributionTables none = new ContributionTables();
+        none.deductions = new ArrayList<>();
+        PayrollCalculator calculator = new PayrollCalculator(none);
+        Check.equal(80357, calculator.grossPay(90, 53571), "pay for 1:30 at 535.71");
+        Check.equal(53571, calculator.grossPay(60, 53571), "pay for one hour");
+
+        // Amounts read from files round to the nearest centavo
+        Check.equal(1250, Centavos.of(12.5), "12.50 pesos");
+        Check.equal(1001, Centavos.of(10.005), "10.005 pesos, stored just over half");
+        Check.equal(4083333, Centavos.of(40833.33), "40833.33 pesos");
+
+        // Formatting as %.2f
+        Check.equal("-0.05", Centavos.format(-5), "format -5");
+        Check.equal("0.00", Centavos.format(0), "format 0");
+        Check.equal("1234.56", Centavos.format(123456), "format 123456");
+        Check.equal("10.07", Centavos.format(1007), "format 1007");
+        Check.equal(String.format("%.2f", -1234.5), Centavos.format(-123450), "format -123450");
+
+        // Rounding names in rates files
+        Check.equal(Centavos.Rounding.HALF_UP, Centavos.Rounding.parse(""), "blank rounding");
+        Check.equal(Centavos.Rounding.HALF_EVEN, Centavos.Rounding.parse(" half-even "), "half-even");
+        Check.equal(Centavos.Rounding.DOWN, Centavos.Rounding.parse("Down"), "Down");
+    }
+}
@@ -0,0 +1,65 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.util.Objects;             // Null-safe equality
+
+// Minimal assertions for the plain-Java tests, which need nothing beyond the JDK. "./gradlew build"
+// runs them; without Gradle, from the project root:
+//   javac -d /tmp/t $(ls *.java test/*.java) && java -cp /tmp/t revisedms2.AllTests
+final class Check {
+    private static int checks;    // Assertions made
+    private static int failures;  // Assertions that failed
+
+    private Check() {
+    }
+
+    // Expect two whole numbers to match
+    static void equal(long expected, long actual, String what) {
+        checks++;
+        if (expected == actual) return;
+        failures++;
+        System.out.println("FAIL " + what + ": expected " + expected + ", got " + actual);
+    }
+
+    // Expect two values to be equal
+    static void equal(Object expected, Object actual, String what) {
+        checks++;
+        if (Objects.equals(expected, actual)) return;
+        failures++;
+        System.out.println("FAIL " + what + ": expected " + expected + ", got " + actual);
+    }
+
+    // Expect a condition to hold
+    static void isTrue(boolean condition, String what) {
+        checks++;
+        if (condition) return;
+        failures++;
+        System.out.println("FAIL " + what);
+    }
+
+    // Expect an action to throw an exception of the given type
+    static void throwsException(Class<? extends Exception> type, Action action, String what) {
+        checks++;
+        try {
+            action.run();
+        } catch (Exception e) {
+            if (type.isInstance(e)) return;
+            failures++;
+            System.out.println("FAIL " + what + ": expected " + type.getSimpleName() + ", got " + e);
+            return;
+        }
+        failures++;
+        System.out.println("FAIL " + what + ": expected " + type.getSimpleName() + ", nothing thrown");
+    }
+
+    // Code expected to throw
+    interface Action {
+        void run() throws Exception;
+    }
+
+    // Print the tally and exit non-zero if anything failed
+    static void finish() {
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) System.exit(1);
+    }
+}
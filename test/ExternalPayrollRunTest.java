@@ -0,0 +1,166 @@
+package revisedms2;
+
+// Import necessary libraries
+import java.io.FileReader;            // File handling
+import java.io.IOException;           // Input/output exceptions
+import java.io.Reader;                // Character streams
+import java.nio.ByteBuffer;           // Byte buffers
+import java.nio.charset.StandardCharsets; // Character sets
+import java.nio.file.Files;           // File utilities
+import java.nio.file.Path;            // File paths
+import java.util.*;                   // Collections and utilities
+
+// Payroll streamed from disk: the register matches the in-memory run, with and without spilled
+// runs, and the run merger returns every record in order
+public class ExternalPayrollRunTest {
+    static final String HEADER = "Employee #,Last Name,First Name,Date,Log In,Log Out\n";
+    static final int JUNE_3 = TimeCodec.epochDay(2024, 6, 3);
+
+    public static void main(String[] args) throws Exception {
+        run();
+        Check.finish();
+    }
+
+    static void run() throws IOException {
+        PayrollCalculator calculator;
+        try (Reader source = new FileReader("filestoberead/contribution_tables.csv", StandardCharsets.UTF_8)) {
+            calculator = new PayrollCalculator(ContributionTables.load(source));
+        }
+        Path directory = Files.createTempDirectory("external-payroll-test");
+        try {
+            records();
+            merger(directory);
+            smallPeriod(directory, calculator);
+            spilledRuns(directory, calculator);
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    // Packed records sort by employee, then day, and give back their punches
+    static void records() {
+        long first = ExternalPayrollRun.record(0, 65535, 1439, 1439);
+        long second = ExternalPayrollRun.record(1, 0, TimeCodec.BAD_TIME, TimeCodec.BAD_TIME);
+        Check.isTrue(first >= 0 && second > first, "records sort by employee first");
+        Check.isTrue(ExternalPayrollRun.record(1, 1, 0, 0) > second, "then by day");
+        Check.equal(1, ExternalPayrollRun.indexOf(second), "roster index");
+        long missing = ExternalPayrollRun.record(7, 3, TimeCodec.NO_TIME, TimeCodec.BAD_TIME);
+        Check.equal(AttendanceRecord.pack(TimeCodec.NO_TIME, TimeCodec.BAD_TIME), ExternalPayrollRun.pairOf(missing), "punch codes");
+        Check.equal(AttendanceRecord.pack(480, 1020), ExternalPayrollRun.pairOf(ExternalPayrollRun.record(7, 3, 480, 1020)), "punches");
+    }
+
+    // Runs of different lengths, one empty, merge into one sorted sequence
+    static void merger(Path directory) throws IOException {
+        long[][] runs = {{1, 4, 4, 9, 12}, {}, {2, 3, 10}, {0, 4, 11, 13, 14, 15}};
+        List<Path> files = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        for (int r = 0; r < runs.length; r++) {
+            ByteBuffer bytes = ByteBuffer.allocate(runs[r].length * Long.BYTES);
+            for (long record : runs[r]) {
+                bytes.putLong(record);
+                expected.add(record);
+            }
+            files.add(Files.write(directory.resolve("run" + r), bytes.array()));
+        }
+        Collections.sort(expected);
+        List<Long> merged = new ArrayList<>();
+        try (ExternalPayrollRun.RunMerger merger = new ExternalPayrollRun.RunMerger(files, Long.BYTES)) {
+            for (long record = merger.next(); record != ExternalPayrollRun.END; record = merger.next()) merged.add(record);
+            Check.equal(ExternalPayrollRun.END, merger.next(), "merger stays exhausted");
+        }
+        Check.equal(expected, merged, "merged runs");
+    }
+
+    // A week with split, repeated, night and open days, rows outside the period, an unknown
+    // employee and a bad date, all in one sort buffer
+    static void smallPeriod(Path directory, PayrollCalculator calculator) throws IOException {
+        Map<String, Employee> employees = new LinkedHashMap<>();
+        employees.put("10002", new Employee("10002", "Antonio Lim", "06/19/1988", 60000, 357.14));
+        employees.put("10001", new Employee("10001", "Manuel III Garcia", "10/11/1983", 90000, 535.71));
+        employees.put("10003", new Employee("10003", "Bianca Sofia Aquino", "08/04/1989", 60000, 357.14));
+        Path attendance = directory.resolve("week.csv");
+        Files.writeString(attendance, HEADER
+            + "10001,Garcia,Manuel III,06/03/2024,13:00,17:00\n"
+            + "10002,\"Lim, Jr.\",Antonio,06/03/2024,22:00,2:00\n"
+            + "10001,Garcia,Manuel III,06/03/2024,8:00,12:00\n"
+            + "10001,Garcia,Manuel III,06/04/2024,8:00,12:00\n"
+            + "10001,Garcia,Manuel III,06/04/2024,8:00,12:00\n"
+            + "10001,Garcia,Manuel III,06/10/2024,8:00,17:00\n"
+            + "10002,Lim,Antonio,06/05/2024,8:00,\n"
+            + "99999,Nobody,Known,06/05/2024,8:00,17:00\n"
+            + "10002,Lim,Antonio,13/45/2024,8:00,17:00\n", StandardCharsets.UTF_8);
+        Path register = directory.resolve("week-register.csv");
+        ExternalPayrollRun external = new ExternalPayrollRun(employees, calculator, ExternalPayrollRun.MIN_BUDGET_BYTES);
+        Check.equal(3, external.writeRegister(attendance.toString(), JUNE_3, JUNE_3 + 4, register.toString(),
+            RegisterWriter.Format.CSV), "entries written");
+        Check.equal(0, external.runsWritten, "nothing spilled");
+        List<String> lines = Files.readAllLines(register);
+        Check.equal(4, lines.size(), "header and one line per employee");
+        Check.equal("Employee #,Name,Hours Worked,Gross Pay,SSS,PhilHealth,Pag-IBIG,Total Deductions,Taxable Income,"
+            + "Withholding Tax,Net Pay", lines.get(0), "register header");
+        Check.equal("10001,\"Manuel III Garcia\",12.00,6428.52,1125.00,900.00,1800.00,3825.00,86175.00,16685.40,69489.60",
+            lines.get(1), "10001: split day and repeated pair, 06/10 outside the period");
+        Check.equal("10002,\"Antonio Lim\",4.00,1428.56,1125.00,900.00,1200.00,3225.00,56775.00,8360.50,48414.50",
+            lines.get(2), "10002: night shift, open day not paid");
+        Check.isTrue(lines.get(3).startsWith("10003,\"Bianca Sofia Aquino\",0.00,0.00,"), "10003: no attendance");
+        Check.equal(memoryRegister(employees, attendance, JUNE_3, JUNE_3 + 4, directory, calculator),
+            Files.readString(register), "same register as the in-memory run");
+    }
+
+    // More rows than one sort buffer holds, shuffled, so runs spill and merge
+    static void spilledRuns(Path directory, PayrollCalculator calculator) throws IOException {
+        Map<String, Employee> employees = new LinkedHashMap<>();
+        for (int e = 0; e < 300; e++) {
+            String number = String.valueOf(20000 + e);
+            employees.put(number, new Employee(number, "Employee " + e, "01/01/1990", 20000 + 100 * e, 119.05 + e));
+        }
+        List<String> rows = new ArrayList<>();
+        Random random = new Random(42);
+        for (int e = 0; e < 320; e++) {  // The last 20 are not on the roster
+            for (int d = 0; d < 1000; d++) {
+                int logIn = 6 * 60 + random.nextInt(240);
+                String date = TimeCodec.formatDate(JUNE_3 + d);
+                rows.add((20000 + e) + ",Doe,Juan," + date + "," + time(logIn) + "," + time((logIn + 540) % 1440) + "\n");
+                if (random.nextInt(10) == 0) {  // Some days punched twice
+                    rows.add((20000 + e) + ",Doe,Juan," + date + "," + time(logIn + 600) + "," + time((logIn + 660) % 1440) + "\n");
+                }
+            }
+        }
+        Collections.shuffle(rows, random);
+        Path attendance = directory.resolve("spilled.csv");
+        StringBuilder text = new StringBuilder(HEADER);
+        for (String row : rows) text.append(row);
+        Files.writeString(attendance, text, StandardCharsets.UTF_8);
+
+        Path register = directory.resolve("spilled-register.csv");
+        ExternalPayrollRun external = new ExternalPayrollRun(employees, calculator, ExternalPayrollRun.MIN_BUDGET_BYTES);
+        int endDay = JUNE_3 + 899;  // Leaves rows outside the period
+        Check.equal(300, external.writeRegister(attendance.toString(), JUNE_3, endDay, register.toString(),
+            RegisterWriter.Format.CSV), "entries written with spills");
+        Check.isTrue(external.runsWritten >= 3, "rows spilled to several runs, got " + external.runsWritten);
+        Check.equal(memoryRegister(employees, attendance, JUNE_3, endDay, directory, calculator),
+            Files.readString(register), "same register as the in-memory run after spilling");
+        try (var files = Files.list(Path.of(ExternalPayrollRun.SPILL_DIRECTORY))) {
+            Check.isTrue(files.noneMatch(file -> file.getFileName().toString().startsWith("motorph-payroll-")),
+                "spill files deleted");
+        }
+    }
+
+    // Register written by the in-memory run over the same file
+    static String memoryRegister(Map<String, Employee> employees, Path attendance, int startDay, int endDay,
+                                 Path directory, PayrollCalculator calculator) throws IOException {
+        AttendanceRecord record = new AttendanceRecord();
+        DataLoader.loadAttendanceParallel(record, attendance.toString());
+        Path register = directory.resolve("memory-register.csv");
+        new PayrollRun(employees, record, calculator).writeRegister(startDay, endDay, register.toString(), RegisterWriter.Format.CSV);
+        return Files.readString(register);
+    }
+
+    // H:mm for a minute of the day
+    static String time(int minute) {
+        return minute / 60 + ":" + (minute % 60 < 10 ? "0" : "") + minute % 60;
+    }
+}